@@ -0,0 +1,115 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Operations measured by the JMH benchmarks in jmh.RaceBenchmarks: parsing the
+ * laps, position and sessions responses, computing driver statistics and
+ * formatting and rendering lap times. The main method runs JMH, or records the
+ * fixtures the benchmarks read.
+ *
+ * Usage:
+ *   F1Benchmarks [JMH options, e.g. -f 1 -wi 3 -i 5 -prof gc parse] [-p fixtures=dir]
+ *   F1Benchmarks --record SEASON,ROUND [--fixtures dir]
+ */
+public class F1Benchmarks {
+    public static final String DEFAULT_FIXTURES = "bench/fixtures";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--record")) {
+            CommandLineArgs options = new CommandLineArgs(args);
+            List<Integer> race = options.getIntList("--record");
+            if (race.size() != 2) {
+                System.err.println("Error: --record expects SEASON,ROUND, e.g. --record 2024,1");
+                System.exit(2);
+            }
+            Path fixtureDir = Paths.get(options.get("--fixtures", DEFAULT_FIXTURES));
+            Fixtures.record(fixtureDir, race.get(0), race.get(1));
+            System.out.println("Recorded fixtures in " + fixtureDir);
+            return;
+        }
+
+        org.openjdk.jmh.Main.main(args);
+    }
+
+    /**
+     * Prepares the inputs of every benchmark
+     *
+     * @param fixtureDir Recorded fixtures; generated ones are used if there are none
+     * @return Operation per benchmark name; each returns its result so it is not dead code
+     */
+    public static Map<String, Callable<Object>> operations(String fixtureDir) throws IOException {
+        Fixtures fixtures = Fixtures.load(Paths.get(fixtureDir));
+        byte[] laps = fixtures.getLaps();
+        byte[] position = fixtures.getPosition();
+        String sessions = new String(fixtures.getSessions(), StandardCharsets.UTF_8);
+
+        // Inputs for the statistics and formatting benchmarks
+        List<DriverLapData> drivers = F1ApiService.parseLapData(reader(laps));
+        double[] lapTimes = collectLapTimes(drivers);
+
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        operations.put("parseLapData", () -> F1ApiService.parseLapData(reader(laps)));
+        operations.put("finishingOrderReduce", () -> FinishingOrderLoader.reduce(reader(position)));
+        operations.put("parseRaceInfo", () -> F1ApiService.parseRaceInfo(sessions));
+        operations.put("getAverageLapTime", () -> {
+            double total = 0;
+            for (DriverLapData driver : drivers) {
+                total += driver.getAverageLapTime();
+            }
+            return total;
+        });
+        operations.put("lapStatistics", () -> LapStatistics.of(drivers).getCleanAirPace());
+        RaceSession session = new RaceSession(new SessionInfo(2024, 1), 9472, drivers);
+        operations.put("raceTraceAllGaps", () -> RaceTrace.of(session).getAllGaps());
+        LapQuery query = LapQuery.compile("SELECT count, min(lap_time), avg(lap_time), p90(s2) "
+            + "WHERE lap BETWEEN 5 AND 50 AND NOT pit_out GROUP BY driver ORDER BY avg(lap_time)");
+        operations.put("lapQueryGroupByDriver", () -> query.execute(session).getRowCount());
+        operations.put("formatLapTime", () -> {
+            int length = 0;
+            for (double lapTime : lapTimes) {
+                length += Formatter.formatLapTime(lapTime).length();
+            }
+            return length;
+        });
+
+        TableRenderer table = new TableRenderer(Writer.nullWriter(), TableRenderer.Format.CONSOLE);
+        operations.put("renderResultsTable", () -> {
+            table.column("Pos", 5).column("No.", 5).column("Driver", 25)
+                .column("Best Lap", 12).column("Avg Lap", 12).column("Laps", 6).writeHeader();
+            for (DriverLapData driver : drivers) {
+                table.cell(driver.getFinishingPosition())
+                    .cell(driver.getDriverNumber())
+                    .cell(driver.getDriverName())
+                    .lapTime(driver.getFastestLapTime())
+                    .lapTime(driver.getAverageLapTime())
+                    .cell(driver.getTotalLaps())
+                    .endRow();
+            }
+            table.endTable();
+            return table;
+        });
+        return operations;
+    }
+
+    private static JsonStreamReader reader(byte[] body) {
+        return new JsonStreamReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    private static double[] collectLapTimes(List<DriverLapData> drivers) {
+        int count = 0;
+        for (DriverLapData driver : drivers) {
+            count += driver.getTotalLaps();
+        }
+        double[] lapTimes = new double[count];
+        int i = 0;
+        for (DriverLapData driver : drivers) {
+            for (double lapTime : driver.getLapTimes()) {
+                lapTimes[i++] = lapTime;
+            }
+        }
+        return lapTimes;
+    }
+}
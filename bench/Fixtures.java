@@ -0,0 +1,169 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Full-race API responses used by the benchmarks.
+ * Fixtures are normally recorded from the API once with --record and then
+ * read from disk, so every run measures exactly the same payloads. When no
+ * recording exists, responses of the same shape and size as a real race
+ * (20 drivers, 57 laps, a few thousand position updates) are generated.
+ */
+public class Fixtures {
+    private static final String SESSIONS_FILE = "sessions.json";
+    private static final String LAPS_FILE = "laps.json";
+    private static final String POSITION_FILE = "position.json";
+
+    private static final int DRIVERS = 20;
+    private static final int LAPS = 57;
+    private static final int POSITION_UPDATES = 4000;
+
+    private final byte[] sessions;
+    private final byte[] laps;
+    private final byte[] position;
+    private final String source;
+
+    private Fixtures(byte[] sessions, byte[] laps, byte[] position, String source) {
+        this.sessions = sessions;
+        this.laps = laps;
+        this.position = position;
+        this.source = source;
+    }
+
+    /**
+     * Loads recorded fixtures from a directory, or generates them if none were recorded
+     */
+    public static Fixtures load(Path directory) throws IOException {
+        if (Files.exists(directory.resolve(LAPS_FILE))) {
+            return new Fixtures(
+                Files.readAllBytes(directory.resolve(SESSIONS_FILE)),
+                Files.readAllBytes(directory.resolve(LAPS_FILE)),
+                Files.readAllBytes(directory.resolve(POSITION_FILE)),
+                "recorded in " + directory);
+        }
+        return new Fixtures(
+            generateSessions().getBytes(StandardCharsets.UTF_8),
+            generateLaps().getBytes(StandardCharsets.UTF_8),
+            generatePositions().getBytes(StandardCharsets.UTF_8),
+            "generated");
+    }
+
+    /**
+     * Downloads the responses of one race into a fixture directory
+     *
+     * @param season Year of the season
+     * @param round Race round number
+     */
+    public static void record(Path directory, int season, int round) throws Exception {
+        HttpTransport transport = new JdkHttpTransport();
+        String base = F1ApiService.OPENF1_BASE_URL;
+
+        String sessionsUrl = String.format("%s/sessions?year=%d&session_name=Race", base, season);
+        byte[] sessions = download(transport, sessionsUrl);
+        List<RaceInfo> races = F1ApiService.parseRaceInfo(new String(sessions, StandardCharsets.UTF_8));
+        if (round < 1 || round > races.size()) {
+            throw new Exception("Could not find session key for this race");
+        }
+        int sessionKey = races.get(round - 1).getSessionKey();
+
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(SESSIONS_FILE), sessions);
+        Files.write(directory.resolve(LAPS_FILE),
+            download(transport, String.format("%s/laps?session_key=%d", base, sessionKey)));
+        Files.write(directory.resolve(POSITION_FILE),
+            download(transport, String.format("%s/position?session_key=%d", base, sessionKey)));
+    }
+
+    public byte[] getSessions() {
+        return sessions;
+    }
+
+    public byte[] getLaps() {
+        return laps;
+    }
+
+    public byte[] getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (sessions %d KB, laps %d KB, position %d KB)", source,
+            sessions.length / 1024, laps.length / 1024, position.length / 1024);
+    }
+
+    private static byte[] download(HttpTransport transport, String url) throws Exception {
+        try (InputStream in = transport.get(url)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String generateSessions() {
+        StringBuilder json = new StringBuilder("[");
+        for (int round = 1; round <= 24; round++) {
+            if (round > 1) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                "{\"circuit_key\":%d,\"circuit_short_name\":\"Circuit %d\",\"country_code\":\"XXX\","
+                + "\"country_key\":%d,\"country_name\":\"Country %d\",\"date_end\":\"2024-%02d-%02dT17:00:00+00:00\","
+                + "\"date_start\":\"2024-%02d-%02dT15:00:00+00:00\",\"gmt_offset\":\"03:00:00\",\"location\":\"City\","
+                + "\"meeting_key\":%d,\"session_key\":%d,\"session_name\":\"Race\",\"session_type\":\"Race\",\"year\":2024}",
+                round, round, round, round, 1 + round / 3, 1 + round % 28, 1 + round / 3, 1 + round % 28,
+                1200 + round, 9400 + round));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String generateLaps() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("[");
+        long start = 1709391600000L; // 2024-03-02T15:00:00Z
+        for (int driver = 1; driver <= DRIVERS; driver++) {
+            for (int lap = 1; lap <= LAPS; lap++) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                double sector1 = 30 + random.nextDouble() * 2;
+                double sector2 = 38 + random.nextDouble() * 2;
+                double sector3 = 24 + random.nextDouble() * 2;
+                boolean firstLap = lap == 1;
+                long lapStart = start + (lap - 1) * 94_000L + driver * 250L;
+                json.append(String.format(Locale.ROOT,
+                    "{\"date_start\":\"%s\",\"driver_number\":%d,\"duration_sector_1\":%s,"
+                    + "\"duration_sector_2\":%.3f,\"duration_sector_3\":%.3f,\"i1_speed\":%d,\"i2_speed\":%d,"
+                    + "\"is_pit_out_lap\":%b,\"lap_duration\":%s,\"lap_number\":%d,\"meeting_key\":1229,"
+                    + "\"segments_sector_1\":[2049,2049,2051,2049,2049,2049,2048],"
+                    + "\"segments_sector_2\":[2049,2049,2049,2049,2051,2049,2049,2049],"
+                    + "\"segments_sector_3\":[2049,2049,2049,2049,2049,2049],\"session_key\":9472,\"st_speed\":%d}",
+                    isoTime(lapStart), driver, firstLap ? "null" : String.format(Locale.ROOT, "%.3f", sector1),
+                    sector2, sector3, 280 + random.nextInt(40), 250 + random.nextInt(40),
+                    lap == 18 || lap == 38, firstLap ? "null" : String.format(Locale.ROOT, "%.3f", sector1 + sector2 + sector3),
+                    lap, 300 + random.nextInt(30)));
+            }
+        }
+        return json.append(']').toString();
+    }
+
+    private static String generatePositions() {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("[");
+        long start = 1709391600000L;
+        for (int i = 0; i < POSITION_UPDATES; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            int driver = 1 + random.nextInt(DRIVERS);
+            json.append(String.format(Locale.ROOT,
+                "{\"date\":\"%s\",\"driver_number\":%d,\"meeting_key\":1229,\"position\":%d,\"session_key\":9472}",
+                isoTime(start + i * 1_350L), driver, 1 + random.nextInt(DRIVERS)));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String isoTime(long epochMillis) {
+        return java.time.Instant.ofEpochMilli(epochMillis).atOffset(java.time.ZoneOffset.UTC)
+            .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'000+00:00'"));
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of F1ApiService against a local OpenF1StandIn.
+ * A number of clients load races concurrently, first with an empty cache and
+ * lap store (every race goes over the wire) and then again with both warm, so
+ * the effect of concurrency, retries and caching can be timed without the
+ * noise of the real API.
+ *
+ * Usage:
+ *   LoadTest [--clients 8] [--races 24] [--repeat 1] [--passes 2] [--fixtures dir]
+ *            [--latency ms] [--jitter ms] [--bandwidth bytes/s] [--error-rate percent] [--seed n]
+ */
+public class LoadTest {
+    private static final int SEASON = 2024; // Season of the sessions fixture
+
+    public static void main(String[] args) throws Exception {
+        CommandLineArgs options = new CommandLineArgs(args);
+        Fixtures fixtures = Fixtures.load(Paths.get(options.get("--fixtures", "bench/fixtures")));
+        OpenF1StandIn.Settings settings = OpenF1StandIn.Settings.parse(options).port(0);
+        int clients = options.getInt("--clients", 8);
+        int races = options.getInt("--races", 24);
+        int repeat = Math.max(1, options.getInt("--repeat", 1));
+        int passes = options.getInt("--passes", 2);
+
+        Path workDir = Files.createTempDirectory("f1-load-test");
+        try (OpenF1StandIn standIn = OpenF1StandIn.start(fixtures, settings)) {
+            System.out.println("Fixtures: " + fixtures);
+            System.out.println("Stand-in: " + standIn.getBaseUrl() + " (" + settings + ")");
+            System.out.println();
+
+            // A private cache and store, so neither the user's cache nor the results are affected
+            F1ApiService apiService = new F1ApiService(standIn.getBaseUrl(),
+                new ResponseCache(workDir.resolve("responses"), Long.MAX_VALUE, false),
+                new JdkHttpTransport(), new LapStore(workDir.resolve("sessions")));
+
+            for (int pass = 1; pass <= passes; pass++) {
+                runPass(apiService, pass == 1 ? "cold" : "warm", clients, races, repeat);
+            }
+
+            System.out.println();
+            System.out.println("Stand-in requests: " + standIn.getRequestCounts());
+            System.out.printf(Locale.ROOT, "Injected errors: %d, bytes sent: %d KB%n",
+                standIn.getInjectedErrors(), standIn.getBytesSent() / 1024);
+            apiService.getMetrics().printSummary(TableRenderer.console());
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Loads rounds 1..races with a fixed number of client threads,
+     * submitting each round repeat times in a row so identical requests overlap
+     */
+    private static void runPass(F1ApiService apiService, String name, int clients, int races, int repeat)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Long>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < races * repeat; i++) {
+            int r = 1 + i / repeat;
+            results.add(pool.submit(() -> {
+                long raceStart = System.nanoTime();
+                apiService.fetchSession(SEASON, r);
+                return System.nanoTime() - raceStart;
+            }));
+        }
+
+        long[] latencies = new long[results.size()];
+        int loaded = 0;
+        int failed = 0;
+        for (Future<Long> result : results) {
+            try {
+                latencies[loaded] = result.get();
+                loaded++;
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println("Load failed: " + e.getCause().getMessage());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        Arrays.sort(latencies, 0, loaded);
+        System.out.printf(Locale.ROOT, "%-5s %3d loads in %8.1f ms (%6.1f loads/s), failed %d, "
+            + "p50 %7.1f ms, p99 %7.1f ms%n",
+            name, loaded, elapsed / 1e6, loaded * 1e9 / elapsed, failed,
+            percentile(latencies, loaded, 50) / 1e6, percentile(latencies, loaded, 99) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, int count, int percent) {
+        if (count == 0) {
+            return 0;
+        }
+        return sorted[Math.min(count - 1, (int) Math.ceil(percent / 100.0 * count) - 1)];
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
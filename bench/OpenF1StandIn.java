@@ -0,0 +1,370 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.json.*;
+
+/**
+ * Local stand-in for the OpenF1 API that serves the benchmark fixtures.
+ * Point F1ApiService at getBaseUrl() to run the whole pipeline (concurrent
+ * fetches, retries, gzip, caching) on one machine without touching the real API.
+ *
+ * Every response can be delayed by a fixed latency plus random jitter, written
+ * at a limited bandwidth, and replaced by a 503 or 429 at a given error rate.
+ * The random choices come from one seeded Random, so a run with the same
+ * settings and request order injects the same errors.
+ *
+ * The fixtures describe a single race, so every session key is answered with
+ * the same laps and positions. Date filters on the position endpoint are
+ * ignored and the full history is returned; driver_number on the laps and
+ * position endpoints is honored.
+ *
+ * Usage:
+ *   OpenF1StandIn [--port 8765] [--fixtures dir] [--latency ms] [--jitter ms]
+ *                 [--bandwidth bytes/s] [--error-rate percent] [--seed n]
+ */
+public class OpenF1StandIn implements Closeable {
+    private static final int CHUNK_BYTES = 8 * 1024;
+    private static final int HANDLER_THREADS = 64;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Settings settings;
+    private final Random random;
+
+    private final byte[] sessions;
+    private final byte[] laps;
+    private final byte[] position;
+    private final byte[] drivers;
+    private final Map<Integer, byte[]> lapsByDriver;
+    private final Map<Integer, byte[]> positionByDriver;
+
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentSkipListMap<>();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Latency, bandwidth and error injection of a stand-in server
+     */
+    public static class Settings {
+        private int port = 0; // Any free port
+        private long latencyMillis = 0;
+        private long jitterMillis = 0;
+        private long bytesPerSecond = 0; // Unlimited
+        private double errorRate = 0;
+        private long seed = 1;
+
+        public Settings port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Settings latency(long latencyMillis, long jitterMillis) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            return this;
+        }
+
+        /**
+         * @param bytesPerSecond Bandwidth of every response, or 0 for unlimited
+         */
+        public Settings bandwidth(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * @param errorRate Fraction of requests answered with 503 or 429, from 0 to 1
+         */
+        public Settings errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Settings seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        static Settings parse(CommandLineArgs options) {
+            return new Settings()
+                .port(options.getInt("--port", 8765))
+                .latency(options.getInt("--latency", 0), options.getInt("--jitter", 0))
+                .bandwidth(options.getInt("--bandwidth", 0))
+                .errorRate(options.getInt("--error-rate", 0) / 100.0)
+                .seed(options.getInt("--seed", 1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "latency %d+-%d ms, bandwidth %s, error rate %.1f%%, seed %d",
+                latencyMillis, jitterMillis, bytesPerSecond > 0 ? bytesPerSecond / 1024 + " KB/s" : "unlimited",
+                errorRate * 100, seed);
+        }
+    }
+
+    private OpenF1StandIn(Fixtures fixtures, Settings settings) throws IOException {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+        this.sessions = fixtures.getSessions();
+        this.laps = fixtures.getLaps();
+        this.position = fixtures.getPosition();
+        this.lapsByDriver = splitByDriver(laps);
+        this.positionByDriver = splitByDriver(position);
+        this.drivers = generateDrivers(lapsByDriver.keySet());
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port), 0);
+        this.executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "openf1-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v1/", this::handle);
+    }
+
+    /**
+     * Starts a server on a local port
+     *
+     * @param fixtures Responses to serve
+     * @return Running server; close it to stop
+     */
+    public static OpenF1StandIn start(Fixtures fixtures, Settings settings) throws IOException {
+        OpenF1StandIn standIn = new OpenF1StandIn(fixtures, settings);
+        standIn.server.start();
+        return standIn;
+    }
+
+    /**
+     * @return Base URL to pass to F1ApiService
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * @return Number of requests received per endpoint, including failed ones
+     */
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        requestCounts.forEach((endpoint, count) -> counts.put(endpoint, count.get()));
+        return counts;
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String endpoint = exchange.getRequestURI().getPath().substring("/v1/".length());
+            requestCounts.computeIfAbsent(endpoint, key -> new AtomicLong()).incrementAndGet();
+
+            // One draw per request keeps the sequence reproducible for a given request order
+            long delay;
+            int injectedStatus = 0;
+            synchronized (random) {
+                delay = settings.latencyMillis
+                    + (settings.jitterMillis > 0 ? (long) (random.nextDouble() * settings.jitterMillis) : 0);
+                if (random.nextDouble() < settings.errorRate) {
+                    injectedStatus = random.nextBoolean() ? 503 : 429;
+                }
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendStatus(exchange, 405);
+                return;
+            }
+            if (injectedStatus != 0) {
+                injectedErrors.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "0");
+                sendStatus(exchange, injectedStatus);
+                return;
+            }
+
+            byte[] body = bodyFor(endpoint, parseQuery(exchange.getRequestURI().getRawQuery()));
+            if (body == null) {
+                sendStatus(exchange, 404);
+                return;
+            }
+            send(exchange, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private byte[] bodyFor(String endpoint, Map<String, String> query) {
+        switch (endpoint) {
+            case "sessions":
+                return sessions;
+            case "laps":
+                return forDriver(laps, lapsByDriver, query.get("driver_number"));
+            case "position":
+                return forDriver(position, positionByDriver, query.get("driver_number"));
+            case "drivers":
+                return drivers;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param driver driver_number filter, or null for all rows
+     * @return Rows of the driver, or null if the filter is not a number
+     */
+    private static byte[] forDriver(byte[] all, Map<Integer, byte[]> byDriver, String driver) {
+        if (driver == null) {
+            return all;
+        }
+        try {
+            return byDriver.getOrDefault(Integer.parseInt(driver), "[]".getBytes(StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void send(HttpExchange exchange, byte[] body) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0); // Chunked, the compressed length is not known yet
+        } else {
+            exchange.sendResponseHeaders(200, body.length);
+        }
+
+        OutputStream wire = new ThrottledOutputStream(exchange.getResponseBody(), settings.bytesPerSecond);
+        try (OutputStream out = gzip ? new GZIPOutputStream(wire, CHUNK_BYTES) : wire) {
+            for (int offset = 0; offset < body.length; offset += CHUNK_BYTES) {
+                out.write(body, offset, Math.min(CHUNK_BYTES, body.length - offset));
+            }
+        }
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static Map<Integer, byte[]> splitByDriver(byte[] json) {
+        Map<Integer, JSONArray> rows = new TreeMap<>();
+        JSONArray all = new JSONArray(new String(json, StandardCharsets.UTF_8));
+        for (int i = 0; i < all.length(); i++) {
+            JSONObject row = all.getJSONObject(i);
+            rows.computeIfAbsent(row.getInt("driver_number"), number -> new JSONArray()).put(row);
+        }
+
+        Map<Integer, byte[]> byDriver = new TreeMap<>();
+        rows.forEach((number, driverRows) ->
+            byDriver.put(number, driverRows.toString().getBytes(StandardCharsets.UTF_8)));
+        return byDriver;
+    }
+
+    private static byte[] generateDrivers(Set<Integer> driverNumbers) {
+        JSONArray drivers = new JSONArray();
+        for (int number : driverNumbers) {
+            drivers.put(new JSONObject()
+                .put("driver_number", number)
+                .put("first_name", "Driver")
+                .put("last_name", String.valueOf(number))
+                .put("full_name", "Driver " + number)
+                .put("name_acronym", String.format("D%02d", number))
+                .put("team_name", "Team " + (1 + number / 2)));
+        }
+        return drivers.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Output stream that never writes faster than a given number of bytes per second
+     */
+    private class ThrottledOutputStream extends FilterOutputStream {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        private long written = 0;
+
+        ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+            super(out);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+            bytesSent.addAndGet(len);
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+
+            long dueNanos = written * 1_000_000_000L / bytesPerSecond;
+            long aheadMillis = (dueNanos - (System.nanoTime() - start)) / 1_000_000;
+            if (aheadMillis > 0) {
+                try {
+                    Thread.sleep(aheadMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Throttled write interrupted");
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineArgs options = new CommandLineArgs(args);
+        Fixtures fixtures = Fixtures.load(Paths.get(options.get("--fixtures", "bench/fixtures")));
+        Settings settings = Settings.parse(options);
+
+        OpenF1StandIn standIn = start(fixtures, settings);
+        System.out.println("Serving " + fixtures + " at " + standIn.getBaseUrl());
+        System.out.println(settings);
+        System.out.println("Ctrl+C to stop");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            standIn.close();
+            System.out.println("Requests: " + standIn.getRequestCounts()
+                + ", injected errors: " + standIn.getInjectedErrors());
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,99 @@
+package jmh;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmarks for the hot paths of loading and displaying a race.
+ * JMH does not accept benchmark classes in the default package, and a named
+ * package cannot import the application classes, so the operations are built
+ * by F1Benchmarks and looked up once per trial. Every benchmark calls its own
+ * operation through its own field, so the call site stays monomorphic and is
+ * inlined like a direct call; results go to JMH's Blackhole as return values.
+ *
+ * Fixtures are read from bench/fixtures; pass -p fixtures=dir to use another directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RaceBenchmarks {
+    @Param("bench/fixtures")
+    public String fixtures;
+
+    private Callable<Object> parseLapData;
+    private Callable<Object> finishingOrderReduce;
+    private Callable<Object> parseRaceInfo;
+    private Callable<Object> getAverageLapTime;
+    private Callable<Object> lapStatistics;
+    private Callable<Object> raceTraceAllGaps;
+    private Callable<Object> lapQueryGroupByDriver;
+    private Callable<Object> formatLapTime;
+    private Callable<Object> renderResultsTable;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Map<String, Callable<Object>> operations = (Map<String, Callable<Object>>) Class.forName("F1Benchmarks")
+            .getMethod("operations", String.class)
+            .invoke(null, fixtures);
+        parseLapData = operations.get("parseLapData");
+        finishingOrderReduce = operations.get("finishingOrderReduce");
+        parseRaceInfo = operations.get("parseRaceInfo");
+        getAverageLapTime = operations.get("getAverageLapTime");
+        lapStatistics = operations.get("lapStatistics");
+        raceTraceAllGaps = operations.get("raceTraceAllGaps");
+        lapQueryGroupByDriver = operations.get("lapQueryGroupByDriver");
+        formatLapTime = operations.get("formatLapTime");
+        renderResultsTable = operations.get("renderResultsTable");
+    }
+
+    @Benchmark
+    public Object parseLapData() throws Exception {
+        return parseLapData.call();
+    }
+
+    @Benchmark
+    public Object finishingOrderReduce() throws Exception {
+        return finishingOrderReduce.call();
+    }
+
+    @Benchmark
+    public Object parseRaceInfo() throws Exception {
+        return parseRaceInfo.call();
+    }
+
+    @Benchmark
+    public Object getAverageLapTime() throws Exception {
+        return getAverageLapTime.call();
+    }
+
+    @Benchmark
+    public Object lapStatistics() throws Exception {
+        return lapStatistics.call();
+    }
+
+    @Benchmark
+    public Object raceTraceAllGaps() throws Exception {
+        return raceTraceAllGaps.call();
+    }
+
+    @Benchmark
+    public Object lapQueryGroupByDriver() throws Exception {
+        return lapQueryGroupByDriver.call();
+    }
+
+    @Benchmark
+    public Object formatLapTime() throws Exception {
+        return formatLapTime.call();
+    }
+
+    @Benchmark
+    public Object renderResultsTable() throws Exception {
+        return renderResultsTable.call();
+    }
+}
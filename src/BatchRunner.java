@@ -0,0 +1,127 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Non-interactive mode that loads whole seasons and writes one combined report.
+ * Races are loaded concurrently through a SeasonLoader, and the report is
+ * written in calendar order as the races finish loading.
+ */
+public class BatchRunner {
+    private final F1ApiService apiService;
+    private final int concurrency;
+    private final int topLaps;
+    private final TableRenderer.Format format;
+    
+    public BatchRunner(F1ApiService apiService, int concurrency, int topLaps) {
+        this(apiService, concurrency, topLaps, TableRenderer.Format.CONSOLE);
+    }
+    
+    public BatchRunner(F1ApiService apiService, int concurrency, int topLaps, TableRenderer.Format format) {
+        this.apiService = apiService;
+        this.concurrency = Math.max(1, concurrency);
+        this.topLaps = topLaps;
+        this.format = format;
+    }
+    
+    /**
+     * Loads the requested races and writes the report
+     * 
+     * @param seasons Seasons to load
+     * @param rounds Rounds to load in every season, or empty for all rounds
+     * @param output Report file, or null for standard output
+     * @return Number of races that could not be loaded
+     */
+    public int run(List<Integer> seasons, List<Integer> rounds, Path output) throws Exception {
+        try (SeasonLoader loader = new SeasonLoader(apiService, concurrency)) {
+            List<SeasonLoader.PendingRace> pending = loader.start(seasons, rounds);
+            
+            int failures = 0;
+            List<RaceSession> loaded = new ArrayList<>();
+            try (TableRenderer table = TableRenderer.open(output, format)) {
+                table.text("F1 Lap Time Analyzer - Batch Report (" + pending.size() + " races)");
+                
+                for (SeasonLoader.PendingRace pendingRace : pending) {
+                    RaceInfo race = pendingRace.getRace();
+                    table.section(pendingRace.getSessionInfo().getSeason() + " Round " + race.getRound() + ": " 
+                        + race.getCircuitName() + " (" + race.getDate() + ")");
+                    
+                    RaceSession session;
+                    try {
+                        session = pendingRace.await();
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        failures++;
+                        table.text("Error: " + e.getMessage());
+                        continue;
+                    }
+                    loaded.add(session);
+                    Metrics.Timer timer = apiService.getMetrics().startTimer("report.race");
+                    try {
+                        writeRace(table, session);
+                    } finally {
+                        timer.stop();
+                    }
+                }
+                
+                if (loaded.size() > 1) {
+                    table.section("Fastest Laps Across All Races");
+                    table.column("Rank", 5).column("Driver", 25).column("Lap Time", 12)
+                        .column("Season", 7).column("Round", 6).column("Lap", 5).writeHeader();
+                    Metrics.Timer timer = apiService.getMetrics().startTimer("analysis.topFastest");
+                    List<RankedLap> fastest;
+                    try {
+                        fastest = FastestLapSelector.topFastest(loaded, topLaps);
+                    } finally {
+                        timer.stop();
+                    }
+                    for (int i = 0; i < fastest.size(); i++) {
+                        RankedLap lap = fastest.get(i);
+                        table.cell(i + 1)
+                            .cell(lap.getDriver().getDriverName())
+                            .lapTime(lap.getLapTime())
+                            .cell(lap.getSessionInfo().getSeason())
+                            .cell(lap.getSessionInfo().getRound())
+                            .cell(lap.getLapNumber())
+                            .endRow();
+                    }
+                    table.endTable();
+                }
+            }
+            return failures;
+        }
+    }
+    
+    private void writeRace(TableRenderer table, RaceSession session) throws IOException {
+        table.column("Pos", 5).column("No.", 5).column("Driver", 25)
+            .column("Best Lap", 12).column("Avg Lap", 12).column("Laps", 6).writeHeader();
+        for (DriverLapData driver : session.getDrivers()) {
+            if (driver.getFinishingPosition() < 999) {
+                table.cell(driver.getFinishingPosition());
+            } else {
+                table.cell("NC");
+            }
+            table.cell(driver.getDriverNumber())
+                .cell(driver.getDriverName())
+                .lapTime(driver.getFastestLapTime())
+                .lapTime(driver.getAverageLapTime())
+                .cell(driver.getTotalLaps())
+                .endRow();
+        }
+        table.endTable();
+        
+        table.section("Fastest Laps");
+        table.column("Rank", 5).column("Driver", 25).column("Lap Time", 12).column("Lap", 5).writeHeader();
+        List<RankedLap> fastest = FastestLapSelector.topFastest(session, topLaps);
+        for (int i = 0; i < fastest.size(); i++) {
+            RankedLap lap = fastest.get(i);
+            table.cell(i + 1)
+                .cell(lap.getDriver().getDriverName())
+                .lapTime(lap.getLapTime())
+                .cell(lap.getLapNumber())
+                .endRow();
+        }
+        table.endTable();
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.*;
+
+/**
+ * Simple parser for --flag and --option value style arguments
+ */
+public class CommandLineArgs {
+    private final Set<String> flags = new HashSet<>();
+    private final Map<String, String> options = new HashMap<>();
+    
+    public CommandLineArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            
+            // An option takes the next argument as its value unless that is another option
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(arg, args[++i]);
+            } else {
+                flags.add(arg);
+            }
+        }
+    }
+    
+    public boolean has(String name) {
+        return flags.contains(name) || options.containsKey(name);
+    }
+    
+    public String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+    
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " expects a number but was: " + value);
+        }
+    }
+    
+    /**
+     * Parses a list of numbers such as "1,3,5-8"
+     * 
+     * @return Numbers in the order given, or an empty list if the option is absent
+     */
+    public List<Integer> getIntList(String name) {
+        List<Integer> values = new ArrayList<>();
+        String value = options.get(name);
+        if (value == null) {
+            return values;
+        }
+        
+        try {
+            for (String part : value.split(",")) {
+                String[] range = part.trim().split("-");
+                int from = Integer.parseInt(range[0].trim());
+                int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+                for (int n = from; n <= to; n++) {
+                    values.add(n);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " expects numbers like 1,3,5-8 but was: " + value);
+        }
+        return values;
+    }
+}
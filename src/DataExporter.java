@@ -0,0 +1,243 @@
+import java.io.*;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Exports laps, fastest-lap sectors and results of whole seasons to CSV or NDJSON.
+ * Races are loaded concurrently but at most a fixed number ahead of the one
+ * being written, and each race is written row by row and then released, so
+ * memory stays bounded by that window no matter how many seasons are exported.
+ * Every dataset goes to one file for all races, in calendar order.
+ */
+public class DataExporter {
+    public static final String LAPS = "laps";
+    public static final String SECTORS = "sectors";
+    public static final String RESULTS = "results";
+
+    private static final String[] LAP_FIELDS = {
+        "season", "round", "session_key", "driver_number", "lap_number", "lap_duration",
+        "duration_sector_1", "duration_sector_2", "duration_sector_3", "is_pit_out_lap", "date_start"
+    };
+    private static final String[] SECTOR_FIELDS = {
+        "season", "round", "session_key", "driver_number", "driver_name",
+        "duration_sector_1", "duration_sector_2", "duration_sector_3", "sectors_total"
+    };
+    private static final String[] RESULT_FIELDS = {
+        "season", "round", "session_key", "circuit", "date", "position", "driver_number", "driver_name",
+        "team_name", "laps", "fastest_lap_duration", "fastest_lap_number", "average_lap_duration"
+    };
+
+    private final F1ApiService apiService;
+    private final int concurrency;
+
+    public DataExporter(F1ApiService apiService, int concurrency) {
+        this.apiService = apiService;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Parses a list of datasets such as "laps,results"
+     *
+     * @return Dataset names in the order given
+     */
+    public static Set<String> parseDatasets(String value) {
+        Set<String> datasets = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(LAPS) && !name.equals(SECTORS) && !name.equals(RESULTS)) {
+                throw new IllegalArgumentException("Unknown dataset: " + name + " (expected laps, sectors or results)");
+            }
+            datasets.add(name);
+        }
+        return datasets;
+    }
+
+    /**
+     * Loads the requested races and writes the datasets
+     *
+     * @param seasons Seasons to export
+     * @param rounds Rounds to export in every season, or empty for all rounds
+     * @param datasets Any of laps, sectors and results
+     * @param directory Output directory
+     * @return Number of races that could not be loaded
+     */
+    public int export(List<Integer> seasons, List<Integer> rounds, Set<String> datasets, Path directory,
+            RecordWriter.Format format, boolean gzip) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        RecordWriter laps = null;
+        RecordWriter sectors = null;
+        RecordWriter results = null;
+        try {
+            if (datasets.contains(LAPS)) {
+                laps = RecordWriter.open(directory, LAPS, format, gzip, LAP_FIELDS);
+            }
+            if (datasets.contains(SECTORS)) {
+                sectors = RecordWriter.open(directory, SECTORS, format, gzip, SECTOR_FIELDS);
+            }
+            if (datasets.contains(RESULTS)) {
+                results = RecordWriter.open(directory, RESULTS, format, gzip, RESULT_FIELDS);
+            }
+
+            // Races are submitted only while the window has room, so at most
+            // concurrency loaded races are waiting to be written
+            Deque<PendingRace> window = new ArrayDeque<>();
+            int failures = 0;
+            for (int season : seasons) {
+                for (RaceInfo race : apiService.fetchRaces(season)) {
+                    if (!rounds.isEmpty() && !rounds.contains(race.getRound())) {
+                        continue;
+                    }
+                    if (window.size() >= concurrency) {
+                        failures += writeRace(window.poll(), laps, sectors, results);
+                    }
+                    window.add(new PendingRace(season, race, 
+                        executor.submit(() -> apiService.fetchSession(season, race.getRound()))));
+                }
+            }
+            while (!window.isEmpty()) {
+                failures += writeRace(window.poll(), laps, sectors, results);
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+            closeAll(laps, sectors, results);
+        }
+    }
+
+    /**
+     * Waits for a race to be loaded and writes it
+     *
+     * @return 1 if the race could not be loaded, else 0
+     */
+    private int writeRace(PendingRace pending, RecordWriter laps, RecordWriter sectors, RecordWriter results) 
+            throws Exception {
+        RaceInfo race = pending.race;
+        RaceSession session;
+        try {
+            session = pending.session.get();
+        } catch (ExecutionException e) {
+            System.err.printf("Failed to load %d round %d: %s%n", pending.season, race.getRound(), 
+                e.getCause().getMessage());
+            return 1;
+        }
+
+        Metrics.Timer timer = apiService.getMetrics().startTimer("export.race");
+        try {
+            if (laps != null) {
+                writeLaps(laps, session);
+            }
+            if (sectors != null) {
+                writeSectors(sectors, session);
+            }
+            if (results != null) {
+                writeResults(results, session, race);
+            }
+        } finally {
+            timer.stop();
+        }
+        return 0;
+    }
+
+    private static void writeLaps(RecordWriter out, RaceSession session) throws IOException {
+        for (DriverLapData driver : session.getDrivers()) {
+            for (int i = 0; i < driver.getRecordedLapCount(); i++) {
+                long start = driver.getLapStartMillis(i);
+                writeKey(out, session)
+                    .value(driver.getDriverNumber())
+                    .value(driver.getLapNumber(i))
+                    .value(driver.getLapTime(i))
+                    .value(driver.getSector1(i))
+                    .value(driver.getSector2(i))
+                    .value(driver.getSector3(i))
+                    .value(driver.isPitOutLap(i))
+                    .value(start == DriverLapData.NO_START_TIME ? null : Instant.ofEpochMilli(start).toString())
+                    .endRecord();
+            }
+        }
+    }
+
+    private static void writeSectors(RecordWriter out, RaceSession session) throws IOException {
+        for (DriverLapData driver : session.getDrivers()) {
+            SectorTimes sectors = driver.getFastestLapSectors();
+            if (sectors == null) {
+                continue;
+            }
+            writeKey(out, session)
+                .value(driver.getDriverNumber())
+                .value(driver.getDriverName())
+                .value(sectors.getSector1())
+                .value(sectors.getSector2())
+                .value(sectors.getSector3())
+                .value(Math.round(sectors.getTotalTime() * 1000) / 1000.0) // Sum of millisecond times
+                .endRecord();
+        }
+    }
+
+    static void writeResults(RecordWriter out, RaceSession session, RaceInfo race) throws IOException {
+        DriverRoster roster = session.getRoster();
+        for (DriverLapData driver : session.getDrivers()) {
+            boolean classified = driver.getFinishingPosition() < 999;
+            boolean timed = driver.getTotalLaps() > 0;
+            writeKey(out, session)
+                .value(race.getCircuitName())
+                .value(race.getDate());
+            if (classified) {
+                out.value(driver.getFinishingPosition());
+            } else {
+                out.value((String) null);
+            }
+            out.value(driver.getDriverNumber())
+                .value(driver.getDriverName())
+                .value(roster.getTeam(driver.getDriverNumber()))
+                .value(driver.getTotalLaps())
+                .value(timed ? driver.getFastestLapTime() : Double.NaN);
+            if (timed) {
+                out.value(driver.getFastestLapNumber());
+            } else {
+                out.value((String) null);
+            }
+            out.value(timed ? driver.getAverageLapTime() : Double.NaN)
+                .endRecord();
+        }
+    }
+
+    private static RecordWriter writeKey(RecordWriter out, RaceSession session) {
+        return out.value(session.getSessionInfo().getSeason())
+            .value(session.getSessionInfo().getRound())
+            .value(session.getSessionKey());
+    }
+
+    /**
+     * Race that is being loaded and has not been written yet
+     */
+    private static class PendingRace {
+        final int season;
+        final RaceInfo race;
+        final Future<RaceSession> session;
+
+        PendingRace(int season, RaceInfo race, Future<RaceSession> session) {
+            this.season = season;
+            this.race = race;
+            this.session = session;
+        }
+    }
+
+    private static void closeAll(RecordWriter... writers) throws IOException {
+        IOException failure = null;
+        for (RecordWriter writer : writers) {
+            if (writer == null) {
+                continue;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
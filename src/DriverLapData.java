@@ -1,25 +1,51 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Model class representing lap data for a single driver
+ * Laps are stored in primitive columns with running totals, so averages are O(1).
+ * Every recorded lap is kept, including pit-out laps and laps without a time;
+ * the summary statistics only use timed laps.
  */
 public class DriverLapData {
+    public static final long NO_START_TIME = Long.MIN_VALUE;
+    
+    private static final int INITIAL_CAPACITY = 80; // Enough for a full race distance
+    
     private final int driverNumber;
-    private final String driverName;
-    private final List<Double> lapTimes;
-    private final List<Integer> lapNumbers;
+    private String driverName;
+    private double[] lapTimes;
+    private int[] lapNumbers;
+    private double[] sector1Times;
+    private double[] sector2Times;
+    private double[] sector3Times;
+    private boolean[] pitOutLaps;
+    private long[] lapStartMillis;
+    private int lapCount;      // All recorded laps
+    private int timedLapCount; // Laps used for statistics
+    private double lapTimeSum;
     private double fastestLapTime;
     private int fastestLapNumber;
+    private int fastestSectorLapIndex; // Fastest lap with all three sectors timed
     private int finishingPosition;
     
     public DriverLapData(int driverNumber) {
         this.driverNumber = driverNumber;
-        this.driverName = getDriverNameByNumber(driverNumber);
-        this.lapTimes = new ArrayList<>();
-        this.lapNumbers = new ArrayList<>();
+        this.driverName = "Driver #" + driverNumber; // Replaced once the roster is known
+        this.lapTimes = new double[INITIAL_CAPACITY];
+        this.lapNumbers = new int[INITIAL_CAPACITY];
+        this.sector1Times = new double[INITIAL_CAPACITY];
+        this.sector2Times = new double[INITIAL_CAPACITY];
+        this.sector3Times = new double[INITIAL_CAPACITY];
+        this.pitOutLaps = new boolean[INITIAL_CAPACITY];
+        this.lapStartMillis = new long[INITIAL_CAPACITY];
+        this.lapCount = 0;
+        this.timedLapCount = 0;
+        this.lapTimeSum = 0.0;
         this.fastestLapTime = Double.MAX_VALUE;
         this.fastestLapNumber = 0;
+        this.fastestSectorLapIndex = -1;
         this.finishingPosition = 999; // Default to end if not set
     }
     
@@ -27,8 +53,57 @@ public class DriverLapData {
      * Adds a lap time to this driver's data
      */
     public void addLapTime(double lapTime, int lapNumber) {
-        lapTimes.add(lapTime);
-        lapNumbers.add(lapNumber);
+        addLapTime(lapTime, lapNumber, Double.NaN, Double.NaN, Double.NaN);
+    }
+    
+    /**
+     * Adds a lap time with its sector durations (NaN for sectors that were not timed)
+     */
+    public void addLapTime(double lapTime, int lapNumber, double sector1, double sector2, double sector3) {
+        addLap(lapNumber, lapTime, sector1, sector2, sector3, false, NO_START_TIME);
+    }
+    
+    /**
+     * Records a lap exactly as reported by the API.
+     * Pit-out laps and laps without a time (NaN) are stored but excluded from
+     * the fastest lap, average and lap count.
+     * 
+     * @param startMillis Lap start as epoch milliseconds, or NO_START_TIME
+     */
+    public void addLap(int lapNumber, double lapTime, double sector1, double sector2, double sector3, 
+            boolean pitOutLap, long startMillis) {
+        if (lapCount == lapTimes.length) {
+            int capacity = lapCount * 2;
+            lapTimes = Arrays.copyOf(lapTimes, capacity);
+            lapNumbers = Arrays.copyOf(lapNumbers, capacity);
+            sector1Times = Arrays.copyOf(sector1Times, capacity);
+            sector2Times = Arrays.copyOf(sector2Times, capacity);
+            sector3Times = Arrays.copyOf(sector3Times, capacity);
+            pitOutLaps = Arrays.copyOf(pitOutLaps, capacity);
+            lapStartMillis = Arrays.copyOf(lapStartMillis, capacity);
+        }
+        
+        int index = lapCount++;
+        lapTimes[index] = lapTime;
+        lapNumbers[index] = lapNumber;
+        sector1Times[index] = sector1;
+        sector2Times[index] = sector2;
+        sector3Times[index] = sector3;
+        pitOutLaps[index] = pitOutLap;
+        lapStartMillis[index] = startMillis;
+        
+        // Skip invalid laps (pit laps, incomplete laps) for statistics
+        if (!isTimedLap(index)) {
+            return;
+        }
+        
+        boolean allSectorsTimed = !Double.isNaN(sector1) && !Double.isNaN(sector2) && !Double.isNaN(sector3);
+        if (allSectorsTimed && (fastestSectorLapIndex < 0 || lapTime < lapTimes[fastestSectorLapIndex])) {
+            fastestSectorLapIndex = index;
+        }
+        
+        timedLapCount++;
+        lapTimeSum += lapTime;
         
         if (lapTime < fastestLapTime) {
             fastestLapTime = lapTime;
@@ -37,52 +112,28 @@ public class DriverLapData {
     }
     
     /**
-     * Calculates average lap time
+     * Returns the average lap time from the running total
      */
     public double getAverageLapTime() {
-        if (lapTimes.isEmpty()) {
+        if (timedLapCount == 0) {
             return 0.0;
         }
         
-        double sum = 0.0;
-        for (double time : lapTimes) {
-            sum += time;
-        }
-        
-        return sum / lapTimes.size();
+        return lapTimeSum / timedLapCount;
     }
     
     /**
-     * Gets the driver name based on their number
+     * Returns the sector times of the fastest lap that has all three sectors timed
+     * 
+     * @return SectorTimes, or null if no lap has complete sector data
      */
-    private String getDriverNameByNumber(int number) {
-        switch (number) {
-            case 1: return "Max Verstappen";
-            case 2: return "Logan Sargeant";
-            case 3: return "Daniel Ricciardo";
-            case 4: return "Lando Norris";
-            case 10: return "Pierre Gasly";
-            case 11: return "Sergio Perez";
-            case 14: return "Fernando Alonso";
-            case 16: return "Charles Leclerc";
-            case 18: return "Lance Stroll";
-            case 20: return "Kevin Magnussen";
-            case 21: return "Nyck de Vries";
-            case 22: return "Yuki Tsunoda";
-            case 23: return "Alexander Albon";
-            case 24: return "Zhou Guanyu";
-            case 27: return "Nico Hulkenberg";
-            case 30: return "Liam Lawson";
-            case 31: return "Esteban Ocon";
-            case 40: return "Liam Lawson";
-            case 43: return "Franco Colapinto";
-            case 44: return "Lewis Hamilton";
-            case 55: return "Carlos Sainz";
-            case 63: return "George Russell";
-            case 77: return "Valtteri Bottas";
-            case 81: return "Oscar Piastri";
-            default: return "Driver #" + number;
+    public SectorTimes getFastestLapSectors() {
+        if (fastestSectorLapIndex < 0) {
+            return null;
         }
+        
+        int i = fastestSectorLapIndex;
+        return new SectorTimes(sector1Times[i], sector2Times[i], sector3Times[i]);
     }
     
     // Getters
@@ -94,6 +145,10 @@ public class DriverLapData {
         return driverName;
     }
     
+    public void setDriverName(String driverName) {
+        this.driverName = driverName;
+    }
+    
     public double getFastestLapTime() {
         return fastestLapTime;
     }
@@ -102,12 +157,67 @@ public class DriverLapData {
         return fastestLapNumber;
     }
     
+    /**
+     * @return Number of timed laps (excluding pit-out laps and laps without a time)
+     */
     public int getTotalLaps() {
-        return lapTimes.size();
+        return timedLapCount;
     }
     
+    /**
+     * @return Lap times of all timed laps
+     */
     public List<Double> getLapTimes() {
-        return new ArrayList<>(lapTimes);
+        List<Double> copy = new ArrayList<>(timedLapCount);
+        for (int i = 0; i < lapCount; i++) {
+            if (isTimedLap(i)) {
+                copy.add(lapTimes[i]);
+            }
+        }
+        return copy;
+    }
+    
+    /**
+     * @return Number of recorded laps, including pit-out and untimed laps
+     */
+    public int getRecordedLapCount() {
+        return lapCount;
+    }
+    
+    // Column accessors by recorded lap index (0 .. getRecordedLapCount() - 1)
+    public int getLapNumber(int index) {
+        return lapNumbers[index];
+    }
+    
+    public double getLapTime(int index) {
+        return lapTimes[index];
+    }
+    
+    public double getSector1(int index) {
+        return sector1Times[index];
+    }
+    
+    public double getSector2(int index) {
+        return sector2Times[index];
+    }
+    
+    public double getSector3(int index) {
+        return sector3Times[index];
+    }
+    
+    public boolean isPitOutLap(int index) {
+        return pitOutLaps[index];
+    }
+    
+    public long getLapStartMillis(int index) {
+        return lapStartMillis[index];
+    }
+    
+    /**
+     * A lap counts for statistics if it has a time and is not a pit-out lap
+     */
+    public boolean isTimedLap(int index) {
+        return !pitOutLaps[index] && !Double.isNaN(lapTimes[index]);
     }
     
     public int getFinishingPosition() {
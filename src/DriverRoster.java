@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Driver names and teams for one session, indexed by driver number
+ */
+public class DriverRoster {
+    private static final int MAX_DRIVER_NUMBER = 100;
+    private static final String[] FIELDS = {
+        "driver_number", "first_name", "last_name", "full_name", "name_acronym", "team_name"
+    };
+    
+    private final String[] names = new String[MAX_DRIVER_NUMBER];
+    private final String[] acronyms = new String[MAX_DRIVER_NUMBER];
+    private final String[] teams = new String[MAX_DRIVER_NUMBER];
+    
+    /**
+     * @return Roster with no drivers, every lookup falls back to "Driver #XX"
+     */
+    public static DriverRoster empty() {
+        return new DriverRoster();
+    }
+    
+    /**
+     * Parses a streamed response of the drivers endpoint
+     */
+    static DriverRoster parse(JsonStreamReader reader) throws IOException {
+        DriverRoster roster = new DriverRoster();
+        
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int driverNumber = -1;
+            String firstName = null;
+            String lastName = null;
+            String fullName = null;
+            String acronym = null;
+            String team = null;
+            
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int field = reader.selectName(FIELDS);
+                if (reader.peek() == JsonStreamReader.Token.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case 0: driverNumber = reader.nextInt(); break;
+                    case 1: firstName = reader.nextString(); break;
+                    case 2: lastName = reader.nextString(); break;
+                    case 3: fullName = reader.nextString(); break;
+                    case 4: acronym = reader.nextString(); break;
+                    case 5: team = reader.nextString(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            
+            if (driverNumber < 0 || driverNumber >= MAX_DRIVER_NUMBER) {
+                continue;
+            }
+            
+            // full_name is upper-cased ("Max VERSTAPPEN"), first/last name read better
+            if (firstName != null && lastName != null) {
+                roster.names[driverNumber] = firstName + " " + lastName;
+            } else if (fullName != null) {
+                roster.names[driverNumber] = fullName;
+            }
+            roster.acronyms[driverNumber] = acronym;
+            roster.teams[driverNumber] = team;
+        }
+        reader.endArray();
+        
+        return roster;
+    }
+    
+    /**
+     * @return Driver name, or "Driver #XX" if the driver is not in the roster
+     */
+    public String getName(int driverNumber) {
+        String name = inRange(driverNumber) ? names[driverNumber] : null;
+        return name != null ? name : "Driver #" + driverNumber;
+    }
+    
+    /**
+     * @return Three-letter acronym such as VER, or null if unknown
+     */
+    public String getAcronym(int driverNumber) {
+        return inRange(driverNumber) ? acronyms[driverNumber] : null;
+    }
+    
+    /**
+     * @return Team name, or null if unknown
+     */
+    public String getTeam(int driverNumber) {
+        return inRange(driverNumber) ? teams[driverNumber] : null;
+    }
+    
+    public int size() {
+        return (int) Arrays.stream(names).filter(n -> n != null).count();
+    }
+    
+    private static boolean inRange(int driverNumber) {
+        return driverNumber >= 0 && driverNumber < MAX_DRIVER_NUMBER;
+    }
+}
@@ -1,9 +1,9 @@
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
 import org.json.*;
 
 /**
@@ -11,7 +11,67 @@ import org.json.*;
  * Handles all HTTP requests and JSON parsing
  */
 public class F1ApiService {
-    private static final String OPENF1_BASE_URL = "https://api.openf1.org/v1";
+    public static final String OPENF1_BASE_URL = "https://api.openf1.org/v1";
+    
+    // Data for the running season can still change, so it is only cached briefly
+    private static final long CURRENT_SEASON_TTL_MILLIS = 15 * 60 * 1000L;
+    
+    // Requests are I/O bound, so a few more threads than cores keeps the network busy
+    private static final int REQUEST_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    
+    // Enough for the concurrent requests of one race load, which is all a prefetch does
+    private static final int PREFETCH_THREADS = 3;
+    
+    private final String baseUrl;
+    private final ResponseCache cache;
+    private final HttpTransport transport;
+    private final LapStore lapStore;
+    private final ExecutorService requestExecutor;
+    private final ExecutorService prefetchExecutor;
+    private final FinishingOrderLoader finishingOrderLoader;
+    private final Metrics metrics = new Metrics();
+    
+    // Concurrent callers of the same URL or race share one request and one parsed result
+    private final SingleFlight<String> requestsInFlight = new SingleFlight<>();
+    private final SingleFlight<String> sessionsInFlight = new SingleFlight<>();
+    
+    // Season -> race calendar ordered by round, loaded once per season
+    private final Map<Integer, List<RaceInfo>> seasonIndex = new ConcurrentHashMap<>();
+    
+    public F1ApiService() {
+        this(ResponseCache.defaultCache(false));
+    }
+    
+    public F1ApiService(ResponseCache cache) {
+        this(cache, new JdkHttpTransport(), LapStore.defaultStore());
+    }
+    
+    public F1ApiService(ResponseCache cache, HttpTransport transport, LapStore lapStore) {
+        this(OPENF1_BASE_URL, cache, transport, lapStore);
+    }
+    
+    /**
+     * @param baseUrl Root of the API, e.g. a local stand-in server for load tests
+     */
+    public F1ApiService(String baseUrl, ResponseCache cache, HttpTransport transport, LapStore lapStore) {
+        // Endpoints are appended with a leading slash
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.cache = cache;
+        this.transport = transport;
+        this.lapStore = lapStore;
+        this.requestExecutor = Executors.newFixedThreadPool(REQUEST_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "f1-api-request");
+            thread.setDaemon(true); // Never keep the JVM alive for a pending request
+            return thread;
+        });
+        this.prefetchExecutor = Executors.newFixedThreadPool(PREFETCH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "f1-api-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.finishingOrderLoader = new FinishingOrderLoader(this);
+    }
     
     /**
      * Fetches all race sessions for a given season
@@ -20,11 +80,26 @@ public class F1ApiService {
      * @return List of RaceInfo objects
      */
     public List<RaceInfo> fetchRaces(int season) throws Exception {
-        String endpoint = String.format("%s/sessions?year=%d&session_name=Race", 
-            OPENF1_BASE_URL, season);
-        String jsonResponse = makeHttpRequest(endpoint);
+        return getSeasonCalendar(season);
+    }
+    
+    /**
+     * Returns the race calendar for a season, downloading it only the first time.
+     * The underlying response is also kept in the disk cache, so the index
+     * survives restarts without another round-trip.
+     */
+    private List<RaceInfo> getSeasonCalendar(int season) throws Exception {
+        List<RaceInfo> calendar = seasonIndex.get(season);
+        if (calendar != null) {
+            return calendar;
+        }
         
-        return parseRaceInfo(jsonResponse);
+        String endpoint = String.format("%s/sessions?year=%d&session_name=Race", 
+            baseUrl, season);
+        calendar = Collections.unmodifiableList(
+            makeHttpRequest(endpoint, season, F1ApiService::parseRaceInfo));
+        seasonIndex.put(season, calendar);
+        return calendar;
     }
     
     
@@ -35,75 +110,198 @@ public class F1ApiService {
      * @return List of DriverLapData objects sorted by finishing position
      */
     public List<DriverLapData> fetchLapData(int season, int round) throws Exception {
+        return fetchSession(season, round).getDrivers();
+    }
+    
+    /**
+     * Loads a race with lap, sector and finishing position data for every driver
+     * 
+     * @param season Year of the season
+     * @param round Race round number
+     * @return RaceSession with drivers sorted by finishing position
+     */
+    public RaceSession fetchSession(int season, int round) throws Exception {
+        // Loading mutates the parsed lap list, so a race must never be assembled twice at once
+        return sessionsInFlight.execute(season + "/" + round, () -> loadSession(season, round, requestExecutor));
+    }
+    
+    /**
+     * Loads a race speculatively, like fetchSession but with its requests on a
+     * separate low-priority pool, so they never queue ahead of foreground
+     * requests. A foreground fetchSession for the same race joins the load.
+     */
+    public RaceSession prefetchSession(int season, int round) throws Exception {
+        return sessionsInFlight.execute(season + "/" + round, () -> loadSession(season, round, prefetchExecutor));
+    }
+    
+    /**
+     * @param executor Pool that runs the concurrent requests of this load
+     */
+    private RaceSession loadSession(int season, int round, ExecutorService executor) throws Exception {
         // First, get the session key for the race
-        int sessionKey = getSessionKey(season, round);
+        RaceInfo race = getRaceInfo(season, round);
         
-        if (sessionKey == -1) {
+        if (race == null) {
             throw new Exception("Could not find session key for this race");
         }
+        int sessionKey = race.getSessionKey();
+        
+        // Past seasons never change, so a previously parsed copy can be mapped directly
+        boolean finalResult = season < Year.now().getValue();
+        if (finalResult) {
+            MappedLapFile stored = openStoredSession(sessionKey);
+            if (stored != null) {
+                DriverRoster roster = fetchRoster(season, sessionKey);
+                Metrics.Timer timer = metrics.startTimer("store.toSession");
+                try {
+                    return stored.toSession(roster);
+                } finally {
+                    timer.stop();
+                }
+            }
+        }
         
-        // Fetch all laps for this session
-        String endpoint = String.format("%s/laps?session_key=%d", OPENF1_BASE_URL, sessionKey);
-        String jsonResponse = makeHttpRequest(endpoint);
-        
-        // Parse lap data
-        List<DriverLapData> lapData = parseLapData(jsonResponse);
-        
-        // Fetch and set finishing positions for all drivers in a single batch operation
-        fetchFinishingPositions(sessionKey, lapData); 
-        
-        // Sort by finishing position
-        lapData.sort(Comparator.comparingInt(DriverLapData::getFinishingPosition));
+        // The roster is small and independent of the lap data
+        Future<DriverRoster> rosterFuture = submit(executor, () -> fetchRoster(season, sessionKey));
+        
+        // Laps and positions only depend on the session key, so fetch them concurrently
+        String endpoint = String.format("%s/laps?session_key=%d", baseUrl, sessionKey);
+        
+        // Stream lap rows straight into the per-driver accumulators
+        Future<List<DriverLapData>> lapsFuture = 
+            submit(executor, () -> streamHttpRequest(endpoint, season, F1ApiService::parseLapData));
+        
+        // Only the end of the position history is needed for the final classification
+        Future<FinishingOrder> tailFuture = 
+            submit(executor, () -> finishingOrderLoader.loadTail(season, race));
+        
+        List<DriverLapData> lapData;
+        FinishingOrder finishingOrder;
+        DriverRoster roster;
+        try {
+            lapData = await(lapsFuture);
+            finishingOrder = completeFinishingOrder(executor, season, sessionKey, tailFuture, lapData);
+            roster = await(rosterFuture);
+        } catch (Exception e) {
+            // Interrupted (a cancelled prefetch) or failed: stop the requests still downloading
+            cancel(List.of(rosterFuture, lapsFuture, tailFuture));
+            throw e;
+        }
         
-        return lapData;
+        Metrics.Timer timer = metrics.startTimer("session.assemble");
+        RaceSession session;
+        try {
+            applyFinishingPositions(finishingOrder, lapData);
+            
+            // Sort by finishing position
+            lapData.sort(Comparator.comparingInt(DriverLapData::getFinishingPosition));
+            
+            session = new RaceSession(new SessionInfo(season, round), sessionKey, lapData, roster);
+        } finally {
+            timer.stop();
+        }
+        if (finalResult) {
+            storeSession(session);
+        }
+        return session;
     }
     
     /**
-     * Fetches and sets finishing positions for all drivers in the race efficiently.
-     * This makes ONE API call instead of one per driver.
-     * @param sessionKey The session key for the race
-     * @param lapData List of DriverLapData to update with positions
+     * Completes the tail of the position history with the drivers it misses.
+     * Drivers whose position did not change near the end (the leader, early
+     * retirements) have no row in the tail, so only their latest rows are
+     * fetched. The full history is read instead if the tail failed, or if most
+     * of the field is missing and one large request beats many small ones.
      */
-    private void fetchFinishingPositions(int sessionKey, List<DriverLapData> lapData) throws Exception {
-        // Create a map for quick lookup of DriverLapData by driver number
-        Map<Integer, DriverLapData> driverMap = new HashMap<>();
-        for (DriverLapData driver : lapData) {
-            driverMap.put(driver.getDriverNumber(), driver);
+    private FinishingOrder completeFinishingOrder(ExecutorService executor, int season, int sessionKey,
+            Future<FinishingOrder> tailFuture, List<DriverLapData> lapData) throws Exception {
+        FinishingOrder tail;
+        try {
+            tail = await(tailFuture);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            tail = null; // The full history is a separate request that may still succeed
         }
         
-        // Fetch all position updates for the session with ONE API call
-        // NOTE: The 'position' endpoint can take a long time to return, consider filtering 
-        // by 'is_retired' = false to get only the cars that finished, but for comprehensive 
-        // results (including retired), this is the better approach.
-        String endpoint = String.format("%s/position?session_key=%d", 
-            OPENF1_BASE_URL, sessionKey);
-        String jsonResponse = makeHttpRequest(endpoint);
-        
-        JSONArray allPositions = new JSONArray(jsonResponse);
-        
-        // Map to hold the last recorded position for each driver
-        Map<Integer, Integer> finalPositions = new HashMap<>();
-        
-        // Iterate through all position records to find the *last* one for each driver
-        // The array is typically chronological, so the last record is the final one.
-        for (int i = 0; i < allPositions.length(); i++) {
-            JSONObject positionEntry = allPositions.getJSONObject(i);
-            int driverNumber = positionEntry.getInt("driver_number");
-            int position = positionEntry.getInt("position");
-            
-            // Only update if the driver is in our lapData list
-            if (driverMap.containsKey(driverNumber)) {
-                 finalPositions.put(driverNumber, position);
+        if (tail != null) {
+            int[] missing = tail.missingDrivers(lapData);
+            if (missing.length <= lapData.size() / 2) {
+                List<Future<FinishingOrder>> latest = new ArrayList<>();
+                for (int driverNumber : missing) {
+                    latest.add(submit(executor, () -> finishingOrderLoader.loadLatest(season, sessionKey, driverNumber)));
+                }
+                try {
+                    for (Future<FinishingOrder> driver : latest) {
+                        tail = tail.merge(await(driver));
+                    }
+                    return tail;
+                } catch (Exception e) {
+                    cancel(latest);
+                    if (e instanceof InterruptedException) {
+                        throw e;
+                    }
+                    // Fall back to the full history below
+                }
             }
         }
-        
-        // Apply the final positions to the DriverLapData objects
-        for (Map.Entry<Integer, Integer> entry : finalPositions.entrySet()) {
-            int driverNumber = entry.getKey();
-            int finalPos = entry.getValue();
-            
-            DriverLapData driver = driverMap.get(driverNumber);
-            if (driver != null) {
+        return finishingOrderLoader.loadFull(season, sessionKey);
+    }
+    
+    /**
+     * Fetches driver names and teams for a session.
+     * The response is cached with the session, so this is a network call only once.
+     * 
+     * @return DriverRoster, or an empty roster if it cannot be loaded
+     */
+    public DriverRoster fetchRoster(int season, int sessionKey) {
+        String endpoint = String.format("%s/drivers?session_key=%d", baseUrl, sessionKey);
+        try {
+            return streamHttpRequest(endpoint, season, DriverRoster::parse);
+        } catch (Exception e) {
+            // Names are cosmetic, drivers are shown as "Driver #XX" instead
+            return DriverRoster.empty();
+        }
+    }
+    
+    /**
+     * Memory-maps a stored session if one exists
+     * 
+     * @return MappedLapFile, or null if the session has not been stored yet
+     */
+    public MappedLapFile openStoredSession(int sessionKey) {
+        Metrics.Timer timer = metrics.startTimer("store.open");
+        try {
+            return lapStore.open(sessionKey);
+        } catch (IOException e) {
+            return null; // Unreadable files are rewritten after the next download
+        } finally {
+            timer.stop();
+        }
+    }
+    
+    private void storeSession(RaceSession session) {
+        Metrics.Timer timer = metrics.startTimer("store.write");
+        try {
+            lapStore.write(session);
+        } catch (IOException e) {
+            // The store is only an accelerator, the session was loaded successfully
+            System.err.println("Warning: could not store session " + session.getSessionKey() 
+                + ": " + e.getMessage());
+        } finally {
+            timer.stop();
+        }
+    }
+    
+    /**
+     * Sets finishing positions on the drivers that appear in the lap data
+     * @param finishingOrder Last recorded position of each driver
+     * @param lapData List of DriverLapData to update with positions
+     */
+    private void applyFinishingPositions(FinishingOrder finishingOrder, List<DriverLapData> lapData) {
+        for (DriverLapData driver : lapData) {
+            int finalPos = finishingOrder.getPosition(driver.getDriverNumber());
+            if (finalPos != FinishingOrder.NOT_CLASSIFIED) {
                 driver.setFinishingPosition(finalPos);
             }
         }
@@ -122,56 +320,29 @@ public class F1ApiService {
      */
     public Map<Integer, SectorTimes> fetchSectorTimes(int season, int round, List<Integer> driverNumbers) 
             throws Exception {
-        int sessionKey = getSessionKey(season, round);
-        
-        Map<Integer, SectorTimes> sectorTimesMap = new HashMap<>();
-        
-        for (int driverNum : driverNumbers) {
-            String endpoint = String.format("%s/laps?session_key=%d&driver_number=%d", 
-                OPENF1_BASE_URL, sessionKey, driverNum);
-            String jsonResponse = makeHttpRequest(endpoint);
-            
-            SectorTimes sectors = parseSectorTimes(jsonResponse);
-            if (sectors != null) {
-                sectorTimesMap.put(driverNum, sectors);
-            }
-        }
-        
-        return sectorTimesMap;
+        // The laps payload of the session already carries every driver's sectors
+        return fetchSession(season, round).getSectorTimes(driverNumbers);
     }
     
     /**
-     * Gets the session key for a specific race
+     * Gets a race from the season index
+     * 
+     * @return RaceInfo, or null if the round does not exist
      */
-    private int getSessionKey(int season, int round) throws Exception {
-        // Fetch sessions for the given year
-        String endpoint = String.format("%s/sessions?year=%d&session_name=Race", 
-            OPENF1_BASE_URL, season);
-        String jsonResponse = makeHttpRequest(endpoint);
+    private RaceInfo getRaceInfo(int season, int round) throws Exception {
+        List<RaceInfo> calendar = getSeasonCalendar(season);
         
-        JSONArray sessions = new JSONArray(jsonResponse);
-        
-        // Find the race that matches our round (counting races chronologically)
-        int raceCount = 0;
-        for (int i = 0; i < sessions.length(); i++) {
-            JSONObject session = sessions.getJSONObject(i);
-            
-            // Check if this is a race session
-            if (session.getString("session_name").equals("Race")) {
-                raceCount++;
-                if (raceCount == round) {
-                    return session.getInt("session_key");
-                }
-            }
+        if (round < 1 || round > calendar.size()) {
+            return null; // Not found
         }
         
-        return -1; // Not found
+        return calendar.get(round - 1);
     }
     
     /**
      * Parses race information from JSON response
      */
-    private List<RaceInfo> parseRaceInfo(String jsonResponse) {
+    static List<RaceInfo> parseRaceInfo(String jsonResponse) {
         List<RaceInfo> races = new ArrayList<>();
         JSONArray sessions = new JSONArray(jsonResponse);
         
@@ -182,12 +353,13 @@ public class F1ApiService {
             String circuitName = session.optString("circuit_short_name", "Unknown Circuit");
             String countryName = session.optString("country_name", "Unknown Country");
             String dateStart = session.optString("date_start", "Unknown Date");
+            String dateEnd = session.optString("date_end", null);
             int sessionKey = session.getInt("session_key");
             
             // Format date to be more readable (extract just the date part)
             String formattedDate = dateStart.length() >= 10 ? dateStart.substring(0, 10) : dateStart;
             
-            races.add(new RaceInfo(roundNumber, circuitName, countryName, formattedDate, sessionKey));
+            races.add(new RaceInfo(roundNumber, circuitName, countryName, formattedDate, sessionKey, dateEnd));
             roundNumber++;
         }
         
@@ -195,119 +367,381 @@ public class F1ApiService {
     }
     
     /**
-     * Parses lap data from JSON response
+     * Parses lap data from a streamed laps response
      */
-    private List<DriverLapData> parseLapData(String jsonResponse) {
-        Map<Integer, DriverLapData> driverMap = new HashMap<>();
-        
-        JSONArray laps = new JSONArray(jsonResponse);
-        
-        for (int i = 0; i < laps.length(); i++) {
-            JSONObject lap = laps.getJSONObject(i);
-            
-            int driverNumber = lap.getInt("driver_number");
-            
-            // Skip invalid laps (pit laps, incomplete laps)
-            if (lap.optBoolean("is_pit_out_lap", false) || 
-                lap.isNull("lap_duration")) {
-                continue;
+    static List<DriverLapData> parseLapData(JsonStreamReader reader) throws IOException {
+        // Driver numbers are small, so an array indexed by number replaces a HashMap
+        DriverLapData[] drivers = new DriverLapData[100];
+        List<DriverLapData> result = new ArrayList<>();
+        
+        LapStreamParser.parse(reader, lap -> {
+            int driverNumber = lap.getDriverNumber();
+            if (driverNumber < 0 || driverNumber >= drivers.length) {
+                return;
             }
             
-            double lapDuration = lap.getDouble("lap_duration");
-            int lapNumber = lap.getInt("lap_number");
-            
             // Get or create driver data
-            DriverLapData driverData = driverMap.getOrDefault(
-                driverNumber, 
-                new DriverLapData(driverNumber)
-            );
-            
-            // Add lap time
-            driverData.addLapTime(lapDuration, lapNumber);
+            DriverLapData driverData = drivers[driverNumber];
+            if (driverData == null) {
+                driverData = new DriverLapData(driverNumber);
+                drivers[driverNumber] = driverData;
+                result.add(driverData);
+            }
             
-            driverMap.put(driverNumber, driverData);
-        }
+            // Record every lap; pit-out and untimed laps are kept but not counted
+            // in the statistics. Sectors are kept so comparisons need no extra request.
+            driverData.addLap(lap.getLapNumber(), lap.getLapDuration(), 
+                lap.getSector1(), lap.getSector2(), lap.getSector3(), 
+                lap.isPitOutLap(), lap.getStartMillis());
+        });
         
-        // Convert map to list (no sorting here, will be sorted after positions are fetched)
-        List<DriverLapData> result = new ArrayList<>(driverMap.values());
+        // Drivers without a single timed lap are left out, as before
+        result.removeIf(driver -> driver.getTotalLaps() == 0);
         
+        // No sorting here, will be sorted after positions are fetched
         return result;
     }
     
     /**
-     * Parses sector times from JSON response
-     * Returns the sector times from the fastest lap
+     * Returns the parsed response for a URL, serving it from the disk cache when possible.
+     * Past seasons never change, so their responses are kept until evicted.
+     * Concurrent requests for the same URL share the result, which must not be modified.
      */
-    private SectorTimes parseSectorTimes(String jsonResponse) {
-        JSONArray laps = new JSONArray(jsonResponse);
-        
-        if (laps.length() == 0) {
-            return null;
-        }
-        
-        // Find the lap with the fastest lap time
-        JSONObject fastestLap = null;
-        double fastestTime = Double.MAX_VALUE;
-        
-        for (int i = 0; i < laps.length(); i++) {
-            JSONObject lap = laps.getJSONObject(i);
+    private <T> T makeHttpRequest(String urlString, int season, Function<String, T> parser) throws Exception {
+        return requestsInFlight.execute(urlString, () -> loadHttpRequest(urlString, season, parser),
+            () -> metrics.requestShared(urlString));
+    }
+    
+    private <T> T loadHttpRequest(String urlString, int season, Function<String, T> parser) throws Exception {
+        Metrics.Request request = metrics.startRequest(urlString);
+        try {
+            String content = cache.get(urlString, ttlForSeason(season));
+            if (content != null) {
+                request.cacheHit();
+            } else if (cache.isOffline()) {
+                throw new Exception("Offline mode: no cached response for " + urlString);
+            } else {
+                content = fetchFromNetwork(urlString, request);
+                try {
+                    cache.put(urlString, content);
+                } catch (IOException e) {
+                    // The cache is only an accelerator, the response was downloaded successfully
+                    System.err.println("Warning: could not cache " + urlString + ": " + e.getMessage());
+                }
+            }
             
-            // Skip invalid laps
-            if (lap.optBoolean("is_pit_out_lap", false) || 
-                lap.isNull("lap_duration") ||
-                lap.isNull("duration_sector_1") ||
-                lap.isNull("duration_sector_2") ||
-                lap.isNull("duration_sector_3")) {
-                continue;
+            long parseStart = System.nanoTime();
+            T result = parser.apply(content);
+            request.finish(content.length(), System.nanoTime() - parseStart, countRows(result));
+            return result;
+        } catch (Exception e) {
+            request.fail();
+            throw e;
+        }
+    }
+    
+    private static int countRows(Object parsed) {
+        if (parsed instanceof Collection) {
+            return ((Collection<?>) parsed).size();
+        }
+        return parsed == null ? 0 : 1;
+    }
+    
+    String getBaseUrl() {
+        return baseUrl;
+    }
+    
+    /**
+     * @return Request and stage counters of this service
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Runs a request on the given pool.
+     * Cancelling the returned future interrupts the request thread and closes
+     * the response it is reading.
+     */
+    private static <T> Future<T> submit(ExecutorService executor, Callable<T> task) {
+        RequestTask<T> future = new RequestTask<>(task);
+        executor.execute(future);
+        return future;
+    }
+    
+    /**
+     * Cancels submitted requests; requests that have finished are not affected
+     */
+    private static void cancel(Collection<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+    
+    /**
+     * Waits for a submitted request, rethrowing its original exception
+     */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new Exception(cause);
+        }
+    }
+    
+    private static long ttlForSeason(int season) {
+        return season < Year.now().getValue() 
+            ? ResponseCache.TTL_FOREVER 
+            : CURRENT_SEASON_TTL_MILLIS;
+    }
+    
+    /**
+     * Parses a response while it is being read, without building it into a String.
+     * Cache hits are read from disk; misses are read from the network and copied
+     * into the cache on the fly, so the entry is stored only if parsing succeeds.
+     * Concurrent requests for the same URL share the result, which must not be modified.
+     */
+    <T> T streamHttpRequest(String urlString, int season, ResponseParser<T> parser) throws Exception {
+        return requestsInFlight.execute(urlString, () -> loadStreamedRequest(urlString, season, parser),
+            () -> metrics.requestShared(urlString));
+    }
+    
+    private <T> T loadStreamedRequest(String urlString, int season, ResponseParser<T> parser) throws Exception {
+        Metrics.Request request = metrics.startRequest(urlString);
+        try {
+            InputStream cached = cache.open(urlString, ttlForSeason(season));
+            if (cached != null) {
+                request.cacheHit();
+                Metrics.MeteredInputStream body = request.meter(cached);
+                try (JsonStreamReader reader = newJsonReader(body)) {
+                    T result = parser.parse(reader);
+                    request.finish(body, reader.getRowCount());
+                    return result;
+                }
             }
             
-            double lapTime = lap.getDouble("lap_duration");
+            if (cache.isOffline()) {
+                throw new Exception("Offline mode: no cached response for " + urlString);
+            }
             
-            if (lapTime < fastestTime) {
-                fastestTime = lapTime;
-                fastestLap = lap;
+            // Opened before the request, so a cache failure cannot leak an open response
+            ResponseCache.EntryWriter entry = newCacheEntry(urlString);
+            try {
+                InputStream response = RequestTask.closeOnCancel(transport.get(urlString));
+                request.responseStarted();
+                Metrics.MeteredInputStream metered = request.meter(response);
+                TeeInputStream tee = entry == null ? null : new TeeInputStream(metered, entry.body());
+                try (InputStream body = tee == null ? metered : tee;
+                     JsonStreamReader reader = newJsonReader(body)) {
+                    T result = parser.parse(reader);
+                    if (tee != null) {
+                        tee.drain(); // Copy any trailing bytes so the cached entry is complete
+                        commitCacheEntry(urlString, entry, tee);
+                    }
+                    request.finish(metered, reader.getRowCount());
+                    return result;
+                }
+            } finally {
+                if (entry != null) {
+                    entry.abort();
+                }
             }
+        } catch (Exception e) {
+            request.fail();
+            throw e;
         }
-        
-        if (fastestLap == null) {
+    }
+    
+    /**
+     * Starts a cache entry for a response that is about to be downloaded
+     * 
+     * @return EntryWriter, or null if the cache cannot be written
+     */
+    private ResponseCache.EntryWriter newCacheEntry(String urlString) {
+        try {
+            return cache.newEntry(urlString);
+        } catch (IOException e) {
+            System.err.println("Warning: could not cache " + urlString + ": " + e.getMessage());
             return null;
         }
+    }
+    
+    private static void commitCacheEntry(String urlString, ResponseCache.EntryWriter entry, TeeInputStream tee) {
+        if (tee.copyFailed()) {
+            return; // Incomplete, aborted by the caller
+        }
+        try {
+            entry.commit();
+        } catch (IOException e) {
+            System.err.println("Warning: could not cache " + urlString + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Parses a response straight from the network, bypassing the cache.
+     * Used for live data that is out of date as soon as it is read.
+     */
+    <T> T streamUncachedRequest(String urlString, ResponseParser<T> parser) throws Exception {
+        if (cache.isOffline()) {
+            throw new Exception("Offline mode: live data is not available");
+        }
         
-        return new SectorTimes(
-            fastestLap.getDouble("duration_sector_1"),
-            fastestLap.getDouble("duration_sector_2"),
-            fastestLap.getDouble("duration_sector_3")
-        );
+        Metrics.Request request = metrics.startRequest(urlString);
+        try {
+            InputStream response = transport.get(urlString);
+            request.responseStarted();
+            Metrics.MeteredInputStream body = request.meter(response);
+            try (JsonStreamReader reader = newJsonReader(body)) {
+                T result = parser.parse(reader);
+                request.finish(body, reader.getRowCount());
+                return result;
+            }
+        } catch (Exception e) {
+            request.fail();
+            throw e;
+        }
+    }
+    
+    private static JsonStreamReader newJsonReader(InputStream in) {
+        return new JsonStreamReader(new InputStreamReader(in, StandardCharsets.UTF_8));
     }
     
     /**
      * Makes an HTTP GET request to the specified URL
      */
-    private String makeHttpRequest(String urlString) throws Exception {
-        URI uri = new URI(urlString); //VSCode gave warning of cast directly to URL (from URI) was depreciated
-        URL url = uri.toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Accept", "application/json");
+    private String fetchFromNetwork(String urlString, Metrics.Request request) throws Exception {
+        try (InputStream in = transport.get(urlString)) {
+            request.responseStarted();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * Parses a streamed JSON response
+     */
+    @FunctionalInterface
+    interface ResponseParser<T> {
+        T parse(JsonStreamReader reader) throws IOException;
+    }
+    
+    /**
+     * Request run by submit. Response streams do not notice interrupts while
+     * they wait for the network, so cancelling also closes the response that
+     * the request is reading, which makes the blocked read fail.
+     */
+    private static class RequestTask<T> extends FutureTask<T> {
+        private static final ThreadLocal<RequestTask<?>> CURRENT = new ThreadLocal<>();
+        
+        private InputStream response;
         
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new Exception("HTTP request failed with code: " + responseCode);
+        RequestTask(Callable<T> callable) {
+            super(callable);
         }
         
-        BufferedReader in = new BufferedReader(
-            new InputStreamReader(conn.getInputStream())
-        );
-        String inputLine;
-        StringBuilder content = new StringBuilder();
+        /**
+         * Registers a response opened by the request running on this thread,
+         * if any, to be closed when the request is cancelled
+         * 
+         * @return The response
+         */
+        static InputStream closeOnCancel(InputStream response) throws IOException {
+            RequestTask<?> task = CURRENT.get();
+            if (task != null) {
+                task.setResponse(response);
+            }
+            return response;
+        }
         
-        while ((inputLine = in.readLine()) != null) {
-            content.append(inputLine);
+        private synchronized void setResponse(InputStream response) throws IOException {
+            this.response = response;
+            if (isCancelled()) {
+                response.close(); // Cancelled between the request and here
+            }
         }
-
-        in.close();
-        conn.disconnect();
         
-        return content.toString();
+        @Override
+        public void run() {
+            CURRENT.set(this);
+            try {
+                super.run();
+            } finally {
+                CURRENT.remove();
+                synchronized (this) {
+                    response = null;
+                }
+            }
+        }
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (this) {
+                    if (response != null) {
+                        try {
+                            response.close();
+                        } catch (IOException e) {
+                            // The reading thread fails either way
+                        }
+                    }
+                }
+            }
+            return cancelled;
+        }
+    }
+    
+    /**
+     * Input stream that copies everything it reads into a second stream.
+     * A failing copy (e.g. a full disk) stops the copying but not the reading.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+        private boolean copyFailed = false;
+        
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1 && !copyFailed) {
+                try {
+                    copy.write(b);
+                } catch (IOException e) {
+                    copyFailed = true;
+                }
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0 && !copyFailed) {
+                try {
+                    copy.write(b, off, count);
+                } catch (IOException e) {
+                    copyFailed = true;
+                }
+            }
+            return count;
+        }
+        
+        boolean copyFailed() {
+            return copyFailed;
+        }
+        
+        void drain() throws IOException {
+            byte[] skip = new byte[4096];
+            while (read(skip, 0, skip.length) != -1) {
+                // Discard, the bytes have been copied
+            }
+        }
     }
 }
\ No newline at end of file
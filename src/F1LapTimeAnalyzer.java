@@ -1,3 +1,12 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -6,34 +15,109 @@ import java.util.*;
  */
 public class F1LapTimeAnalyzer {
     private static final Scanner scanner = new Scanner(System.in);
-    private static final F1ApiService apiService = new F1ApiService();
+    private static final TableRenderer console = TableRenderer.console();
+    private static F1ApiService apiService;
+    private static Prefetcher prefetcher; // null with --no-prefetch
+    private static Prefetcher.Warmed<RaceTrace> raceTrace;
     
     public static void main(String[] args) {
+        CommandLineArgs options;
+        try {
+            options = new CommandLineArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        
+        // --offline serves every request from the local response cache
+        boolean offline = options.has("--offline");
+        
+        // --base-url points the whole pipeline at another server, e.g. the local stand-in
+        String baseUrl = options.get("--base-url", F1ApiService.OPENF1_BASE_URL);
+        apiService = new F1ApiService(baseUrl, ResponseCache.defaultCache(offline), 
+            new JdkHttpTransport(), LapStore.forBaseUrl(baseUrl));
+        
+        // Reported on exit, which also covers Ctrl+C in live mode
+        if (options.has("--stats") || options.has("--metrics-out")) {
+            String metricsOut = options.get("--metrics-out", null);
+            boolean stats = options.has("--stats");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> reportMetrics(stats, metricsOut)));
+        }
+        
+        if (options.has("--batch")) {
+            runBatch(options);
+            return;
+        }
+        
+        if (options.has("--live")) {
+            runLive(options);
+            return;
+        }
+        
+        if (options.has("--season-summary")) {
+            runSeasonSummary(options);
+            return;
+        }
+        
+        if (options.has("--export")) {
+            runExport(options);
+            return;
+        }
+        
+        if (options.has("--query")) {
+            runQuery(options);
+            return;
+        }
+        
+        if (options.has("--serve")) {
+            runServer(options);
+            return;
+        }
+        
+        // Loads the likely next choice while the user is reading
+        if (!options.has("--no-prefetch")) {
+            prefetcher = new Prefetcher(apiService);
+        }
+        
         System.out.println("=== F1 Lap Time Analyzer ===\n");
+        if (offline) {
+            System.out.println("(offline mode: using cached data only)\n");
+        }
         
         try {
             // Get session information from user
             SessionInfo sessionInfo = getUserInput();
             
+            // A prefetch of the same race is joined, any other is cancelled
+            if (prefetcher != null) {
+                prefetcher.keepOnly(sessionInfo.getSeason(), sessionInfo.getRound());
+            }
+            
             // Fetch lap data
             System.out.println("\nFetching race data...");
-            List<DriverLapData> lapData = apiService.fetchLapData(
+            RaceSession session = apiService.fetchSession(
                 sessionInfo.getSeason(), 
                 sessionInfo.getRound()
             );
+            List<DriverLapData> lapData = session.getDrivers();
             
             if (lapData.isEmpty()) {
                 System.out.println("No data available for this race.");
                 return;
             }
             
+            // The race trace is the slowest analysis, prepare it while the menu is shown
+            if (prefetcher != null) {
+                raceTrace = prefetcher.warm(() -> RaceTrace.of(session));
+            }
+            
             // Display results
             displayResults(lapData);
             
             // Main menu loop
             boolean running = true;
             while (running) {
-                running = displayMenu(lapData, sessionInfo);
+                running = displayMenu(session);
             }
             
         } catch (Exception e) {
@@ -41,6 +125,277 @@ public class F1LapTimeAnalyzer {
         } 
     }
     
+    /**
+     * Prints the request and stage statistics and/or writes them as JSON
+     */
+    private static void reportMetrics(boolean printSummary, String metricsOut) {
+        Metrics metrics = apiService.getMetrics();
+        try {
+            if (printSummary) {
+                metrics.printSummary(TableRenderer.console());
+            }
+            if (metricsOut != null) {
+                metrics.writeJson(Paths.get(metricsOut));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs the headless batch mode, e.g.
+     * --batch --seasons 2023-2024 --rounds 1,5-8 --out report.txt --concurrency 4 --top 10 --format csv
+     */
+    private static void runBatch(CommandLineArgs options) {
+        try {
+            List<Integer> seasons = options.getIntList("--seasons");
+            if (seasons.isEmpty()) {
+                System.err.println("Error: --batch requires --seasons (e.g. --seasons 2023-2024)");
+                return;
+            }
+            
+            String out = options.get("--out", null);
+            int concurrency = options.getInt("--concurrency", Runtime.getRuntime().availableProcessors());
+            
+            int topLaps = options.getInt("--top", 3);
+            if (topLaps < 1) {
+                System.err.println("Error: --top must be at least 1");
+                return;
+            }
+            TableRenderer.Format format = TableRenderer.Format.parse(options.get("--format", "console"));
+            
+            BatchRunner runner = new BatchRunner(apiService, concurrency, topLaps, format);
+            int failures = runner.run(seasons, options.getIntList("--rounds"), 
+                out == null ? null : Paths.get(out));
+            
+            if (failures > 0) {
+                System.err.println(failures + " race(s) could not be loaded.");
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Prints season-wide aggregates, e.g.
+     * --season-summary 2024 --rounds 1-10 --concurrency 8 --format markdown --out season.md
+     */
+    private static void runSeasonSummary(CommandLineArgs options) {
+        try {
+            int season = options.getInt("--season-summary", 0);
+            int parallelism = options.getInt("--concurrency", Runtime.getRuntime().availableProcessors());
+            TableRenderer.Format format = TableRenderer.Format.parse(options.get("--format", "console"));
+            String out = options.get("--out", null);
+            
+            SeasonAggregate aggregate = new SeasonAggregator(apiService, parallelism)
+                .aggregate(season, options.getIntList("--rounds"));
+            try (TableRenderer table = TableRenderer.open(out == null ? null : Paths.get(out), format)) {
+                writeSeasonSummary(table, season, aggregate);
+            }
+            
+            for (Map.Entry<Integer, String> failure : aggregate.getFailures().entrySet()) {
+                System.err.println("Failed to load round " + failure.getKey() + ": " + failure.getValue());
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    private static void writeSeasonSummary(TableRenderer table, int season, SeasonAggregate aggregate) 
+            throws IOException {
+        table.section("Fastest Lap per Circuit " + season);
+        table.column("Round", 6).column("Circuit", 20).column("Driver", 25).column("Lap Time", 12)
+            .column("Lap", 5).writeHeader();
+        for (SeasonAggregate.CircuitRecord record : aggregate.getFastestLaps()) {
+            table.cell(record.getRace().getRound())
+                .cell(record.getRace().getCircuitName())
+                .cell(record.getDriverName())
+                .lapTime(record.getLapTime())
+                .cell(record.getLapNumber())
+                .endRow();
+        }
+        table.endTable();
+        
+        // Pace is compared per round, lap times of different circuits are not comparable
+        table.section("Average Pace " + season + " (clean-air pace vs. best of each round)");
+        table.column("Rank", 5).column("No.", 5).column("Driver", 25).column("Rounds", 7)
+            .column("Deficit %", 10).column("Laps", 6).writeHeader();
+        writeRanking(table, aggregate.getPaceRanking(), true);
+        
+        table.section("Consistency " + season + " (p10-p90 lap spread as % of median)");
+        table.column("Rank", 5).column("No.", 5).column("Driver", 25).column("Rounds", 7)
+            .column("Spread %", 10).column("Laps", 6).writeHeader();
+        writeRanking(table, aggregate.getConsistencyRanking(), false);
+    }
+    
+    private static void writeRanking(TableRenderer table, List<SeasonAggregate.DriverSeason> ranking, 
+            boolean pace) throws IOException {
+        int rank = 1;
+        for (SeasonAggregate.DriverSeason driver : ranking) {
+            double value = pace ? driver.getAveragePaceDeficit() : driver.getAverageSpread();
+            if (Double.isInfinite(value)) {
+                continue; // Not enough laps in any round
+            }
+            table.cell(rank++)
+                .cell(driver.getDriverNumber())
+                .cell(driver.getDriverName())
+                .cell(driver.getRounds())
+                .cell(value)
+                .cell(driver.getLaps().getCount())
+                .endRow();
+        }
+        table.endTable();
+    }
+    
+    /**
+     * Streams datasets of whole seasons to files, e.g.
+     * --export laps,sectors,results --seasons 2023-2024 --out-dir export --export-format ndjson --gzip
+     */
+    private static void runExport(CommandLineArgs options) {
+        try {
+            Set<String> datasets = DataExporter.parseDatasets(options.get("--export", "laps,sectors,results"));
+            List<Integer> seasons = options.getIntList("--seasons");
+            if (seasons.isEmpty()) {
+                System.err.println("Error: --export requires --seasons (e.g. --seasons 2023-2024)");
+                return;
+            }
+            RecordWriter.Format format = RecordWriter.Format.parse(options.get("--export-format", "csv"));
+            int concurrency = options.getInt("--concurrency", Runtime.getRuntime().availableProcessors());
+            Path directory = Paths.get(options.get("--out-dir", "export"));
+            
+            int failures = new DataExporter(apiService, concurrency).export(seasons, 
+                options.getIntList("--rounds"), datasets, directory, format, options.has("--gzip"));
+            System.out.println("Exported " + String.join(", ", datasets) + " to " + directory);
+            if (failures > 0) {
+                System.err.println(failures + " race(s) could not be loaded.");
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs one lap query over whole seasons, e.g.
+     * --query "SELECT avg(lap_time) GROUP BY driver ORDER BY avg(lap_time)" --seasons 2024 --rounds 1-5
+     */
+    private static void runQuery(CommandLineArgs options) {
+        try {
+            LapQuery query = LapQuery.compile(options.get("--query", ""));
+            List<Integer> seasons = options.getIntList("--seasons");
+            if (seasons.isEmpty()) {
+                System.err.println("Error: --query requires --seasons (e.g. --seasons 2023-2024)");
+                return;
+            }
+            int concurrency = options.getInt("--concurrency", Runtime.getRuntime().availableProcessors());
+            TableRenderer.Format format = TableRenderer.Format.parse(options.get("--format", "console"));
+            String out = options.get("--out", null);
+            
+            List<RaceSession> sessions;
+            try (SeasonLoader loader = new SeasonLoader(apiService, concurrency)) {
+                sessions = loader.loadAll(seasons, options.getIntList("--rounds"));
+            }
+            Metrics.Timer timer = apiService.getMetrics().startTimer("analysis.query");
+            LapQuery.Result result;
+            try {
+                result = query.execute(sessions);
+            } finally {
+                timer.stop();
+            }
+            
+            try (TableRenderer table = TableRenderer.open(out == null ? null : Paths.get(out), format)) {
+                table.section("Query over " + sessions.size() + " race(s)");
+                result.write(table);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error in query: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Answers the analyses as JSON over HTTP until the process is stopped, e.g.
+     * --serve 8080 --max-sessions 32   or   --serve 8080 --bind 0.0.0.0
+     */
+    private static void runServer(CommandLineArgs options) {
+        try {
+            int port = options.getInt("--serve", 8080);
+            // Loopback only unless another interface is asked for
+            InetAddress address = options.has("--bind")
+                ? InetAddress.getByName(options.get("--bind", null))
+                : InetAddress.getLoopbackAddress();
+            QueryServer server = new QueryServer(apiService, address, port, options.getInt("--max-sessions", 16));
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            InetAddress bound = server.getAddress();
+            String host = bound.isAnyLocalAddress() ? "localhost"
+                : bound instanceof Inet6Address ? "[" + bound.getHostAddress() + "]"
+                : bound.getHostAddress();
+            System.out.println("Serving on http://" + host + ":" + server.getPort() + "/api/"
+                + (bound.isAnyLocalAddress() ? " and all other interfaces" : "") + " (Ctrl+C to stop)");
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Follows a running session and redraws the board after every refresh, e.g.
+     * --live latest --interval 5   or   --live 9472
+     */
+    private static void runLive(CommandLineArgs options) {
+        String target = options.get("--live", "latest");
+        int intervalSeconds = Math.max(1, options.getInt("--interval", 5));
+        
+        try {
+            int sessionKey = target.equals("latest") ? -1 : Integer.parseInt(target);
+            LiveSessionTracker tracker = LiveSessionTracker.start(apiService, sessionKey);
+            System.out.println("Following session " + tracker.getSessionKey() 
+                + " (refresh every " + intervalSeconds + "s, Ctrl+C to stop)");
+            
+            while (true) {
+                long start = System.nanoTime();
+                int newLaps = tracker.refresh();
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                
+                displayLiveBoard(tracker.getStandings());
+                System.out.printf("%d new lap(s), refreshed in %d ms%n", newLaps, elapsedMillis);
+                
+                Thread.sleep(intervalSeconds * 1000L);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error: --live expects a session key or 'latest'");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    private static void displayLiveBoard(List<DriverLapData> standings) throws IOException {
+        console.section("Live Standings");
+        console.column("Pos", 5).column("No.", 5).column("Driver", 25).column("Laps", 6)
+            .column("Last Lap", 12).column("Best Lap", 12).writeHeader();
+        
+        for (DriverLapData driver : standings) {
+            int recorded = driver.getRecordedLapCount();
+            if (driver.getFinishingPosition() < 999) {
+                console.cell(driver.getFinishingPosition());
+            } else {
+                console.cell("-");
+            }
+            console.cell(driver.getDriverNumber())
+                .cell(driver.getDriverName())
+                .cell(recorded > 0 ? driver.getLapNumber(recorded - 1) : 0)
+                .lapTime(recorded > 0 ? driver.getLapTime(recorded - 1) : 0.0)
+                .lapTime(driver.getFastestLapTime())
+                .endRow();
+        }
+        console.endTable();
+    }
+    
     private static SessionInfo getUserInput() {
         System.out.print("Enter season (e.g., 2023 or 2024): ");
         int season = scanner.nextInt();
@@ -60,16 +415,22 @@ public class F1LapTimeAnalyzer {
             }
             
             // Display races
-            System.out.println("\n=== Available Races for " + season + " ===");
-            System.out.printf("%-5s %-30s %-20s%n", "Round", "Circuit", "Date");
-            System.out.println("-".repeat(55));
+            console.section("Available Races for " + season);
+            console.column("Round", 5).column("Circuit", 30).column("Date", 20).writeHeader();
             
             for (RaceInfo race : races) {
-                System.out.printf("%-5d %-30s %-20s%n",
-                    race.getRound(),
-                    race.getCircuitName(),
-                    race.getDate()
-                );
+                console.cell(race.getRound())
+                    .cell(race.getCircuitName())
+                    .cell(race.getDate())
+                    .endRow();
+            }
+            console.endTable();
+            
+            if (prefetcher != null) {
+                int likelyRound = Prefetcher.likelyRound(races, LocalDate.now());
+                if (likelyRound > 0) {
+                    prefetcher.prefetchSession(season, likelyRound);
+                }
             }
             
             System.out.print("\nEnter race round number: ");
@@ -87,32 +448,31 @@ public class F1LapTimeAnalyzer {
         }
     }
     
-    private static void displayResults(List<DriverLapData> lapData) {
-        System.out.println("\n=== Race Results (Final Positions) ===");
-        // UPDATED: Only Pos, No., and Driver Name columns
-        System.out.printf("%-5s %-5s %-30s%n", 
-            "Pos", "No.", "Driver");
-        System.out.println("-".repeat(35)); // Adjusted length of separator
+    private static void displayResults(List<DriverLapData> lapData) throws IOException {
+        console.section("Race Results (Final Positions)");
+        // Only Pos, No., and Driver Name columns
+        console.column("Pos", 5).column("No.", 5).column("Driver", 30).writeHeader();
         
         for (DriverLapData driver : lapData) {
             // Only display drivers with valid finishing positions
             if (driver.getFinishingPosition() < 999) {
-                // UPDATED: Only showing position, number, and name
-                System.out.printf("%-5d %-5d %-30s%n",
-                    driver.getFinishingPosition(),
-                    driver.getDriverNumber(),
-                    driver.getDriverName()
-                );
+                console.cell(driver.getFinishingPosition())
+                    .cell(driver.getDriverNumber())
+                    .cell(driver.getDriverName())
+                    .endRow();
             }
         }
+        console.endTable();
     }
     
-    private static boolean displayMenu(List<DriverLapData> lapData, SessionInfo sessionInfo) {
+    private static boolean displayMenu(RaceSession session) throws Exception {
         System.out.println("\n=== Analysis Menu ===");
-        System.out.println("1. Display Top 3 Fastest Laps");
+        System.out.println("1. Display Top Fastest Laps");
         System.out.println("2. View Average Lap Times for Specific Driver");
         System.out.println("3. Compare Sector Times Between Two Drivers");
-        System.out.println("4. Exit");
+        System.out.println("4. Show Race Trace (Gaps Between Drivers)");
+        System.out.println("5. Run a Lap Query");
+        System.out.println("6. Exit");
         System.out.print("Choose an option: ");
         
         int choice = scanner.nextInt();
@@ -120,15 +480,21 @@ public class F1LapTimeAnalyzer {
         
         switch (choice) {
             case 1:
-                displayTop3FastestLaps(lapData);
+                displayTopFastestLaps(session);
                 break;
             case 2:
-                displayDriverAverageLapTime(lapData);
+                displayDriverAverageLapTime(session);
                 break;
             case 3:
-                compareSectorTimes(lapData, sessionInfo);
+                compareSectorTimes(session);
                 break;
             case 4:
+                displayRaceTrace(session);
+                break;
+            case 5:
+                runLapQuery(session);
+                break;
+            case 6:
                 System.out.println("Exiting...");
                 return false;
             default:
@@ -138,34 +504,70 @@ public class F1LapTimeAnalyzer {
         return true;
     }
     
-    private static void displayTop3FastestLaps(List<DriverLapData> lapData) {
-        System.out.println("\n=== Top 3 Fastest Laps ===");
+    private static void displayTopFastestLaps(RaceSession session) throws IOException {
+        System.out.print("\nNumber of laps to show (default 3): ");
+        String input = scanner.nextLine().trim();
+        int count = 3;
+        if (!input.isEmpty()) {
+            try {
+                count = Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                count = 0;
+            }
+            if (count < 1) {
+                System.out.println("Invalid number, showing 3.");
+                count = 3;
+            }
+        }
         
-        List<DriverLapData> sorted = new ArrayList<>(lapData);
-        sorted.sort(Comparator.comparingDouble(DriverLapData::getFastestLapTime));
+        // Ranks every timed lap, so one driver can hold several places
+        Metrics.Timer timer = apiService.getMetrics().startTimer("analysis.topFastest");
+        List<RankedLap> fastest;
+        try {
+            fastest = FastestLapSelector.topFastest(session, count);
+        } finally {
+            timer.stop();
+        }
         
-        for (int i = 0; i < Math.min(3, sorted.size()); i++) {
-            DriverLapData driver = sorted.get(i);
-            System.out.printf("%d. %s - %s (Lap %d)%n",
-                (i + 1),
-                driver.getDriverName(),
-                Formatter.formatLapTime(driver.getFastestLapTime()),
-                driver.getFastestLapNumber()
-            );
+        console.section("Top " + count + " Fastest Laps");
+        console.column("Rank", 5).column("Driver", 25).column("Lap Time", 12).column("Lap", 5).writeHeader();
+        for (int i = 0; i < fastest.size(); i++) {
+            RankedLap lap = fastest.get(i);
+            console.cell(i + 1)
+                .cell(lap.getDriver().getDriverName())
+                .lapTime(lap.getLapTime())
+                .cell(lap.getLapNumber())
+                .endRow();
+        }
+        console.endTable();
+    }
+    
+    private static void runLapQuery(RaceSession session) throws IOException {
+        System.out.println("\nExample: SELECT count, min(lap_time), avg(lap_time) WHERE NOT pit_out "
+            + "GROUP BY driver ORDER BY avg(lap_time) LIMIT 5");
+        System.out.print("Query: ");
+        String text = scanner.nextLine().trim();
+        
+        LapQuery.Result result;
+        try {
+            result = LapQuery.compile(text).execute(session);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+            return;
         }
+        
+        console.section("Query Result");
+        result.write(console);
     }
     
-    private static void displayDriverAverageLapTime(List<DriverLapData> lapData) {
+    private static void displayDriverAverageLapTime(RaceSession session) {
         System.out.print("\nEnter driver number (e.g., 1 for Verstappen): ");
         int driverNumber = scanner.nextInt();
         scanner.nextLine();
         
-        Optional<DriverLapData> driver = lapData.stream()
-            .filter(d -> d.getDriverNumber() == driverNumber)
-            .findFirst();
+        DriverLapData d = session.getDriver(driverNumber);
         
-        if (driver.isPresent()) {
-            DriverLapData d = driver.get();
+        if (d != null) {
             System.out.println("\n=== Driver Statistics ===");
             System.out.println("Driver: " + d.getDriverName());
             System.out.println("Number: " + d.getDriverNumber());
@@ -173,12 +575,74 @@ public class F1LapTimeAnalyzer {
             System.out.println("Fastest Lap: " + Formatter.formatLapTime(d.getFastestLapTime()) 
                 + " (Lap " + d.getFastestLapNumber() + ")");
             System.out.println("Average Lap Time: " + Formatter.formatLapTime(d.getAverageLapTime()));
+            
+            // Median and percentiles are not skewed by safety car and pit laps
+            LapStatistics stats = LapStatistics.of(d);
+            System.out.println("Median Lap Time: " + Formatter.formatLapTime(stats.getMedian()));
+            System.out.println("10th-90th Percentile: " + Formatter.formatLapTime(stats.getPercentile(10)) 
+                + " - " + Formatter.formatLapTime(stats.getPercentile(90)));
+            System.out.println("Standard Deviation: " + Formatter.formatSectorTime(stats.getStandardDeviation()));
+            System.out.println("Clean-Air Pace: " + Formatter.formatLapTime(stats.getCleanAirPace()) 
+                + " (" + stats.getCleanAirLapCount() + " laps within 107% of the median)");
         } else {
             System.out.println("Driver not found.");
         }
     }
     
-    private static void compareSectorTimes(List<DriverLapData> lapData, SessionInfo sessionInfo) {
+    private static void displayRaceTrace(RaceSession session) throws Exception {
+        RaceTrace trace = Prefetcher.await(raceTrace, () -> RaceTrace.of(session));
+        if (trace.getLapCount() == 0) {
+            System.out.println("No lap data available for a race trace.");
+            return;
+        }
+        
+        System.out.print("\nLap number (1-" + trace.getLapCount() + ", Enter for the last lap): ");
+        String input = scanner.nextLine().trim();
+        int lap = trace.getLapCount();
+        if (!input.isEmpty()) {
+            try {
+                lap = Math.max(1, Math.min(trace.getLapCount(), Integer.parseInt(input)));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number, showing the last lap.");
+            }
+        }
+        
+        console.section("Race Trace After Lap " + lap);
+        console.column("Pos", 5).column("No.", 5).column("Driver", 25).column("Race Time", 12)
+            .column("Gap", 12).column("Interval", 12).writeHeader();
+        
+        int[] order = trace.getOrder(lap);
+        for (int i = 0; i < order.length; i++) {
+            int driver = order[i];
+            if (Double.isNaN(trace.getRaceTime(driver, lap))) {
+                break; // Drivers that did not complete the lap are sorted last
+            }
+            DriverLapData d = trace.getDrivers().get(driver);
+            console.cell(i + 1)
+                .cell(d.getDriverNumber())
+                .cell(d.getDriverName())
+                .lapTime(trace.getRaceTime(driver, lap));
+            if (i == 0) {
+                console.cell("Leader").cell("");
+            } else {
+                console.difference(trace.getGapToLeader(driver, lap))
+                    .difference(trace.getGap(driver, order[i - 1], lap));
+            }
+            console.endRow();
+        }
+        console.endTable();
+        
+        System.out.print("\nExport the full race trace as CSV (file name, Enter to skip): ");
+        String fileName = scanner.nextLine().trim();
+        if (!fileName.isEmpty()) {
+            try (Writer out = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+                trace.write(new TableRenderer(out, TableRenderer.Format.CSV));
+            }
+            System.out.println("Race trace written to " + fileName);
+        }
+    }
+    
+    private static void compareSectorTimes(RaceSession session) throws IOException {
         System.out.print("\nEnter first driver number: ");
         int driver1Num = scanner.nextInt();
         
@@ -186,63 +650,44 @@ public class F1LapTimeAnalyzer {
         int driver2Num = scanner.nextInt();
         scanner.nextLine();
         
-        try {
-            Map<Integer, SectorTimes> sectorData = apiService.fetchSectorTimes(
-                sessionInfo.getSeason(), 
-                sessionInfo.getRound(),
-                Arrays.asList(driver1Num, driver2Num)
-            );
-            
-            SectorTimes sectors1 = sectorData.get(driver1Num);
-            SectorTimes sectors2 = sectorData.get(driver2Num);
-            
-            if (sectors1 == null || sectors2 == null) {
-                System.out.println("Sector data not available for one or both drivers.");
-                return;
-            }
-            
-            Optional<DriverLapData> d1 = lapData.stream()
-                .filter(d -> d.getDriverNumber() == driver1Num)
-                .findFirst();
-            Optional<DriverLapData> d2 = lapData.stream()
-                .filter(d -> d.getDriverNumber() == driver2Num)
-                .findFirst();
-            
-            System.out.println("\n=== Fastest Lap Sector Comparison ===");
-            System.out.printf("%-20s %-15s %-15s %-15s%n", 
-                "Driver", "Sector 1", "Sector 2", "Sector 3");
-            System.out.println("-".repeat(65));
-            
-            d1.ifPresent(driver -> {
-                System.out.printf("%-20s %-15s %-15s %-15s%n",
-                    driver.getDriverName(),
-                    Formatter.formatSectorTime(sectors1.getSector1()),
-                    Formatter.formatSectorTime(sectors1.getSector2()),
-                    Formatter.formatSectorTime(sectors1.getSector3())
-                );
-            });
-            
-            d2.ifPresent(driver -> {
-                System.out.printf("%-20s %-15s %-15s %-15s%n",
-                    driver.getDriverName(),
-                    Formatter.formatSectorTime(sectors2.getSector1()),
-                    Formatter.formatSectorTime(sectors2.getSector2()),
-                    Formatter.formatSectorTime(sectors2.getSector3())
-                );
-            });
-            
-            // Show differences
-            System.out.println("\n=== Sector Differences (Driver 1 - Driver 2) ===");
-            double diff1 = sectors1.getSector1() - sectors2.getSector1();
-            double diff2 = sectors1.getSector2() - sectors2.getSector2();
-            double diff3 = sectors1.getSector3() - sectors2.getSector3();
-            
-            System.out.printf("Sector 1: %s%n", Formatter.formatDifference(diff1));
-            System.out.printf("Sector 2: %s%n", Formatter.formatDifference(diff2));
-            System.out.printf("Sector 3: %s%n", Formatter.formatDifference(diff3));
-            
-        } catch (Exception e) {
-            System.out.println("Error fetching sector times: " + e.getMessage());
+        // Sector times were captured when the race was loaded, so no request is needed
+        SectorTimes sectors1 = session.getSectorTimes(driver1Num);
+        SectorTimes sectors2 = session.getSectorTimes(driver2Num);
+        
+        if (sectors1 == null || sectors2 == null) {
+            System.out.println("Sector data not available for one or both drivers.");
+            return;
         }
+        
+        Optional<DriverLapData> d1 = Optional.ofNullable(session.getDriver(driver1Num));
+        Optional<DriverLapData> d2 = Optional.ofNullable(session.getDriver(driver2Num));
+        
+        console.section("Fastest Lap Sector Comparison");
+        console.column("Driver", 20).column("Sector 1", 15).column("Sector 2", 15).column("Sector 3", 15)
+            .writeHeader();
+        
+        if (d1.isPresent()) {
+            console.cell(d1.get().getDriverName())
+                .sectorTime(sectors1.getSector1())
+                .sectorTime(sectors1.getSector2())
+                .sectorTime(sectors1.getSector3())
+                .endRow();
+        }
+        if (d2.isPresent()) {
+            console.cell(d2.get().getDriverName())
+                .sectorTime(sectors2.getSector1())
+                .sectorTime(sectors2.getSector2())
+                .sectorTime(sectors2.getSector3())
+                .endRow();
+        }
+        console.endTable();
+        
+        // Show differences
+        console.section("Sector Differences (Driver 1 - Driver 2)");
+        console.column("Sector", 10).column("Difference", 12).writeHeader();
+        console.cell("Sector 1").difference(sectors1.getSector1() - sectors2.getSector1()).endRow();
+        console.cell("Sector 2").difference(sectors1.getSector2() - sectors2.getSector2()).endRow();
+        console.cell("Sector 3").difference(sectors1.getSector3() - sectors2.getSector3()).endRow();
+        console.endTable();
     }
 }
\ No newline at end of file
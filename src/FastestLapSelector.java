@@ -0,0 +1,158 @@
+import java.util.*;
+
+/**
+ * Selects the N fastest laps over every timed lap of one or more sessions.
+ * Uses a bounded max-heap kept in primitive arrays, so the cost is
+ * O(laps log N) and only N candidates are held at any time.
+ */
+public class FastestLapSelector {
+    
+    private FastestLapSelector() {
+    }
+    
+    /**
+     * Finds the fastest laps of a single session
+     * 
+     * @param session Loaded race
+     * @param n Number of laps to return, at least 1
+     * @return Up to n laps, fastest first
+     */
+    public static List<RankedLap> topFastest(RaceSession session, int n) {
+        return topFastest(Collections.singletonList(session), n);
+    }
+    
+    /**
+     * Finds the fastest laps across several sessions
+     * 
+     * @param sessions Loaded races
+     * @param n Number of laps to return, at least 1
+     * @return Up to n laps, fastest first (ties keep the order they were seen in)
+     * @throws IllegalArgumentException If n is less than 1
+     */
+    public static List<RankedLap> topFastest(Collection<RaceSession> sessions, int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of laps must be at least 1 but was: " + n);
+        }
+        
+        // The heap is sized by n, so never allocate more slots than there are laps to rank
+        int timedLaps = 0;
+        for (RaceSession session : sessions) {
+            for (DriverLapData driver : session.getDrivers()) {
+                timedLaps += driver.getTotalLaps();
+            }
+        }
+        n = Math.min(n, timedLaps);
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        
+        // Candidates are identified by (driver slot, lap index); slots map back to objects
+        List<DriverLapData> driverSlots = new ArrayList<>();
+        List<SessionInfo> sessionSlots = new ArrayList<>();
+        
+        double[] heapTimes = new double[n];
+        long[] heapOrder = new long[n]; // Sequence number, breaks ties in favour of earlier laps
+        int[] heapDriver = new int[n];
+        int[] heapLap = new int[n];
+        int size = 0;
+        long sequence = 0;
+        
+        for (RaceSession session : sessions) {
+            for (DriverLapData driver : session.getDrivers()) {
+                int slot = driverSlots.size();
+                driverSlots.add(driver);
+                sessionSlots.add(session.getSessionInfo());
+                
+                for (int lap = 0; lap < driver.getRecordedLapCount(); lap++) {
+                    if (!driver.isTimedLap(lap)) {
+                        continue;
+                    }
+                    double time = driver.getLapTime(lap);
+                    long order = sequence++;
+                    
+                    if (size < n) {
+                        heapTimes[size] = time;
+                        heapOrder[size] = order;
+                        heapDriver[size] = slot;
+                        heapLap[size] = lap;
+                        siftUp(heapTimes, heapOrder, heapDriver, heapLap, size);
+                        size++;
+                    } else if (time < heapTimes[0]) {
+                        // Replace the slowest candidate
+                        heapTimes[0] = time;
+                        heapOrder[0] = order;
+                        heapDriver[0] = slot;
+                        heapLap[0] = lap;
+                        siftDown(heapTimes, heapOrder, heapDriver, heapLap, size);
+                    }
+                }
+            }
+        }
+        
+        // Pop the heap from the back so the result comes out fastest first
+        RankedLap[] result = new RankedLap[size];
+        for (int i = size - 1; i >= 0; i--) {
+            DriverLapData driver = driverSlots.get(heapDriver[0]);
+            result[i] = new RankedLap(sessionSlots.get(heapDriver[0]), driver, 
+                driver.getLapNumber(heapLap[0]), heapTimes[0]);
+            
+            int last = i;
+            swap(heapTimes, heapOrder, heapDriver, heapLap, 0, last);
+            siftDown(heapTimes, heapOrder, heapDriver, heapLap, last);
+        }
+        return Arrays.asList(result);
+    }
+    
+    /**
+     * Max-heap order: slower laps first, and for equal times the later lap first
+     */
+    private static boolean slower(double[] times, long[] order, int a, int b) {
+        if (times[a] != times[b]) {
+            return times[a] > times[b];
+        }
+        return order[a] > order[b];
+    }
+    
+    private static void siftUp(double[] times, long[] order, int[] driver, int[] lap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!slower(times, order, index, parent)) {
+                return;
+            }
+            swap(times, order, driver, lap, index, parent);
+            index = parent;
+        }
+    }
+    
+    private static void siftDown(double[] times, long[] order, int[] driver, int[] lap, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int largest = right < size && slower(times, order, right, left) ? right : left;
+            if (!slower(times, order, largest, index)) {
+                return;
+            }
+            swap(times, order, driver, lap, index, largest);
+            index = largest;
+        }
+    }
+    
+    private static void swap(double[] times, long[] order, int[] driver, int[] lap, int a, int b) {
+        double t = times[a];
+        times[a] = times[b];
+        times[b] = t;
+        long o = order[a];
+        order[a] = order[b];
+        order[b] = o;
+        int d = driver[a];
+        driver[a] = driver[b];
+        driver[b] = d;
+        int l = lap[a];
+        lap[a] = lap[b];
+        lap[b] = l;
+    }
+}
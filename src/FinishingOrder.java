@@ -0,0 +1,69 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Final classification of a race as a primitive driver number -> position map
+ */
+public class FinishingOrder {
+    public static final int NOT_CLASSIFIED = 0;
+    
+    private final int[] positions; // Indexed by driver number
+    private final long latestUpdateMillis;
+    
+    public FinishingOrder(int[] positions) {
+        this(positions, DriverLapData.NO_START_TIME);
+    }
+    
+    public FinishingOrder(int[] positions, long latestUpdateMillis) {
+        this.positions = positions;
+        this.latestUpdateMillis = latestUpdateMillis;
+    }
+    
+    /**
+     * @return Last recorded position of the driver, or NOT_CLASSIFIED
+     */
+    public int getPosition(int driverNumber) {
+        if (driverNumber < 0 || driverNumber >= positions.length) {
+            return NOT_CLASSIFIED;
+        }
+        return positions[driverNumber];
+    }
+    
+    /**
+     * @return Numbers of the drivers in the lap data without a recorded position
+     */
+    public int[] missingDrivers(List<DriverLapData> lapData) {
+        return lapData.stream()
+            .mapToInt(DriverLapData::getDriverNumber)
+            .filter(number -> getPosition(number) == NOT_CLASSIFIED)
+            .toArray();
+    }
+    
+    /**
+     * Fills the drivers without a position from another order
+     * 
+     * @param other Order to take missing positions from, e.g. one driver's latest position
+     * @return New FinishingOrder; positions already recorded here take precedence
+     */
+    public FinishingOrder merge(FinishingOrder other) {
+        int[] merged = positions.clone();
+        for (int number = 0; number < merged.length; number++) {
+            if (merged[number] == NOT_CLASSIFIED) {
+                merged[number] = other.getPosition(number);
+            }
+        }
+        return new FinishingOrder(merged, Math.max(latestUpdateMillis, other.latestUpdateMillis));
+    }
+    
+    /**
+     * @return Time of the newest position update as epoch milliseconds, 
+     *         or DriverLapData.NO_START_TIME if there were none
+     */
+    public long getLatestUpdateMillis() {
+        return latestUpdateMillis;
+    }
+    
+    public int getClassifiedCount() {
+        return (int) Arrays.stream(positions).filter(p -> p != NOT_CLASSIFIED).count();
+    }
+}
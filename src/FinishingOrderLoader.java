@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Loads the finishing order of a race from the position endpoint.
+ * The position history is reduced to the last entry per driver in a single
+ * streaming pass, and can be narrowed to the end of the session so that only
+ * a small tail of the history has to be downloaded.
+ */
+public class FinishingOrderLoader {
+    // How far before the scheduled session end the tail request starts
+    private static final Duration TAIL_WINDOW = Duration.ofMinutes(45);
+    
+    private static final DateTimeFormatter CUTOFF_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    
+    private static final String[] FIELDS = { "driver_number", "position", "date" };
+    private static final int MAX_DRIVER_NUMBER = 100;
+    
+    private final F1ApiService apiService;
+    
+    public FinishingOrderLoader(F1ApiService apiService) {
+        this.apiService = apiService;
+    }
+    
+    /**
+     * Loads only the position updates near the end of the session.
+     * OpenF1 only sends a row when a position changes, so drivers who held their
+     * place in that window (often the leader) are missing from the result;
+     * callers must complete it with loadLatest or fall back to loadFull.
+     * 
+     * @param season Year of the season (used for cache expiry)
+     * @param race Race from the season calendar
+     * @return FinishingOrder for the tail, or null if the session end is unknown
+     */
+    public FinishingOrder loadTail(int season, RaceInfo race) throws Exception {
+        String cutoff = tailCutoff(race.getEndTime());
+        if (cutoff == null) {
+            return null;
+        }
+        
+        // date>= is URL-encoded, the timestamp itself only contains safe characters
+        String endpoint = String.format("%s/position?session_key=%d&date%%3E%%3D%s", 
+            apiService.getBaseUrl(), race.getSessionKey(), cutoff);
+        return apiService.streamHttpRequest(endpoint, season, FinishingOrderLoader::reduce);
+    }
+    
+    /**
+     * Loads the last recorded position of one driver.
+     * There is no filter for the latest row, but one driver's history is only
+     * a few dozen rows and is reduced to the last one while streaming.
+     * 
+     * @param season Year of the season (used for cache expiry)
+     * @param sessionKey The session key for the race
+     * @param driverNumber Driver to look up
+     * @return FinishingOrder with at most this driver
+     */
+    public FinishingOrder loadLatest(int season, int sessionKey, int driverNumber) throws Exception {
+        String endpoint = String.format("%s/position?session_key=%d&driver_number=%d", 
+            apiService.getBaseUrl(), sessionKey, driverNumber);
+        return apiService.streamHttpRequest(endpoint, season, FinishingOrderLoader::reduce);
+    }
+    
+    /**
+     * Loads the complete position history for the session
+     * 
+     * @param season Year of the season (used for cache expiry)
+     * @param sessionKey The session key for the race
+     * @return FinishingOrder with every driver that ever held a position
+     */
+    public FinishingOrder loadFull(int season, int sessionKey) throws Exception {
+        // NOTE: The 'position' endpoint can take a long time to return for a full race
+        String endpoint = String.format("%s/position?session_key=%d", 
+            apiService.getBaseUrl(), sessionKey);
+        return apiService.streamHttpRequest(endpoint, season, FinishingOrderLoader::reduce);
+    }
+    
+    /**
+     * Reduces a streamed position array to the last position of each driver.
+     * The array is chronological, so later entries overwrite earlier ones;
+     * entries without a position are ignored.
+     */
+    static FinishingOrder reduce(JsonStreamReader reader) throws IOException {
+        int[] lastPosition = new int[MAX_DRIVER_NUMBER];
+        long latestUpdate = DriverLapData.NO_START_TIME;
+        
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int driverNumber = -1;
+            int position = FinishingOrder.NOT_CLASSIFIED;
+            
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int field = reader.selectName(FIELDS);
+                if (reader.peek() == JsonStreamReader.Token.NULL) {
+                    reader.nextNull();
+                } else if (field == 0) {
+                    driverNumber = reader.nextInt();
+                } else if (field == 1) {
+                    position = reader.nextInt();
+                } else if (field == 2) {
+                    latestUpdate = Math.max(latestUpdate, reader.nextTimestampMillis());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            
+            // A row without a position says nothing about the driver's place
+            boolean hasPosition = position != FinishingOrder.NOT_CLASSIFIED;
+            if (hasPosition && driverNumber >= 0 && driverNumber < lastPosition.length) {
+                lastPosition[driverNumber] = position;
+            }
+        }
+        reader.endArray();
+        
+        return new FinishingOrder(lastPosition, latestUpdate);
+    }
+    
+    /**
+     * Computes the UTC start of the tail window from the session end
+     */
+    private static String tailCutoff(String endTime) {
+        if (endTime == null || endTime.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(endTime)
+                .minus(TAIL_WINDOW)
+                .withOffsetSameInstant(ZoneOffset.UTC)
+                .toLocalDateTime()
+                .format(CUTOFF_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,51 +1,117 @@
 /**
  * Utility class for formatting lap times and other data
+ * Times are formatted with integer arithmetic into a caller-supplied builder,
+ * so large tables can reuse one buffer instead of creating a String per cell.
  */
 public class Formatter {
-    
+
     /**
      * Formats a lap time in seconds to MM:SS.mmm format
-     * 
+     *
      * @param seconds Time in seconds
      * @return Formatted string
      */
     public static String formatLapTime(double seconds) {
-        if (seconds == Double.MAX_VALUE || seconds == 0.0) {
-            return "N/A";
-        }
-        
-        int minutes = (int) (seconds / 60);
-        double remainingSeconds = seconds % 60;
-        
-        return String.format("%d:%06.3f", minutes, remainingSeconds);
+        return appendLapTime(new StringBuilder(12), seconds).toString();
     }
-    
+
     /**
      * Formats a sector time in seconds
-     * 
+     *
      * @param seconds Time in seconds
      * @return Formatted string
      */
     public static String formatSectorTime(double seconds) {
-        if (seconds == 0.0 || Double.isNaN(seconds)) {
-            return "N/A";
-        }
-        
-        return String.format("%.3fs", seconds);
+        return appendSectorTime(new StringBuilder(12), seconds).toString();
     }
-    
+
     /**
      * Formats a time difference with +/- sign
-     * 
+     *
      * @param difference Time difference in seconds
      * @return Formatted string with sign
      */
     public static String formatDifference(double difference) {
+        return appendDifference(new StringBuilder(12), difference).toString();
+    }
+
+    /**
+     * Appends a lap time in M:SS.mmm format
+     *
+     * @return The builder, for chaining
+     */
+    public static StringBuilder appendLapTime(StringBuilder out, double seconds) {
+        if (seconds == Double.MAX_VALUE || seconds == 0.0 || Double.isNaN(seconds)) {
+            return out.append("N/A");
+        }
+
+        long millis = Math.round(seconds * 1000);
+        out.append(millis / 60_000).append(':');
+        appendMillis(out, millis % 60_000, 2);
+        return out;
+    }
+
+    /**
+     * Appends a sector time as seconds with three decimals, e.g. 31.245s
+     *
+     * @return The builder, for chaining
+     */
+    public static StringBuilder appendSectorTime(StringBuilder out, double seconds) {
+        if (seconds == 0.0 || Double.isNaN(seconds)) {
+            return out.append("N/A");
+        }
+
+        appendSeconds(out, seconds);
+        return out.append('s');
+    }
+
+    /**
+     * Appends a time difference with an explicit sign, e.g. +0.125s
+     *
+     * @return The builder, for chaining
+     */
+    public static StringBuilder appendDifference(StringBuilder out, double difference) {
         if (difference == 0.0) {
-            return "Equal";
+            return out.append("Equal");
+        }
+
+        if (difference > 0) {
+            out.append('+');
+        }
+        appendSeconds(out, difference);
+        return out.append('s');
+    }
+
+    /**
+     * Appends a plain number of seconds with three decimals, e.g. 5423.871
+     */
+    public static StringBuilder appendSeconds(StringBuilder out, double seconds) {
+        if (seconds < 0) {
+            out.append('-');
+            seconds = -seconds;
+        }
+        appendMillis(out, Math.round(seconds * 1000), 1);
+        return out;
+    }
+
+    /**
+     * Appends a duration in milliseconds as seconds with three decimals,
+     * zero-padding the whole seconds to at least minDigits digits
+     */
+    private static void appendMillis(StringBuilder out, long millis, int minDigits) {
+        long whole = millis / 1000;
+        int fraction = (int) (millis % 1000);
+
+        if (minDigits == 2 && whole < 10) {
+            out.append('0');
+        }
+        out.append(whole).append('.');
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
         }
-        
-        String sign = difference > 0 ? "+" : "";
-        return String.format("%s%.3fs", sign, difference);
+        out.append(fraction);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+import java.io.InputStream;
+
+/**
+ * Transport used by F1ApiService to perform GET requests
+ */
+public interface HttpTransport {
+    
+    /**
+     * Performs a GET request
+     * 
+     * @param url Request URL
+     * @return Decoded response body; the caller must close it. Closing it from
+     *         another thread aborts a read that is waiting for the network.
+     * @throws Exception If the request fails or returns a non-200 status
+     */
+    InputStream get(String url) throws Exception;
+}
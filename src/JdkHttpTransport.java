@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpTransport backed by one shared java.net.http.HttpClient.
+ * Connections are pooled and reused, HTTP/2 is negotiated when the server
+ * supports it and responses are requested gzip-compressed. Rate limiting (429)
+ * and server errors (5xx) are retried with exponential backoff, honoring
+ * the Retry-After header when present; a server that asks for a longer wait
+ * than the backoff cap fails the request instead of holding a thread.
+ *
+ * The request timeout only covers the response headers, so reading the body
+ * is guarded separately: a read that makes no progress for READ_TIMEOUT
+ * closes the response and fails.
+ *
+ * The client's response streams ignore interrupts, so a response can instead
+ * be aborted by closing its stream from another thread; the blocked read then
+ * fails with an InterruptedIOException.
+ */
+public class JdkHttpTransport implements HttpTransport {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+    
+    private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "http-read-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    static {
+        WATCHDOG.setRemoveOnCancelPolicy(true); // Most bodies are closed long before their first check
+    }
+    
+    private final HttpClient client;
+    
+    public JdkHttpTransport() {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+    
+    @Override
+    public InputStream get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(new URI(url))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+        
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<InputStream> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (HttpTimeoutException e) {
+                throw new Exception("HTTP request timed out: " + url, e);
+            } catch (IOException e) {
+                // Connection resets are transient, retry them like a 5xx
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                continue;
+            }
+            
+            int status = response.statusCode();
+            if (status == 200) {
+                return decode(response);
+            }
+            
+            response.body().close();
+            boolean retryable = status == 429 || status >= 500;
+            if (!retryable || attempt >= MAX_ATTEMPTS) {
+                throw new Exception("HTTP request failed with code: " + status);
+            }
+            
+            long delay = retryAfterMillis(response).orElse(backoff);
+            if (delay > MAX_BACKOFF_MILLIS) {
+                throw new Exception("HTTP request failed with code: " + status
+                    + ", server asked to retry after " + (delay + 999) / 1000 + " s");
+            }
+            Thread.sleep(delay);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+    
+    /**
+     * Wraps the body, unwrapping it if it is gzip-encoded. The gzip header is
+     * only read by the first read, so nothing here can fail and leak the body.
+     */
+    private static InputStream decode(HttpResponse<InputStream> response) {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        return new ResponseBody(response.body(), encoding.equalsIgnoreCase("gzip"), READ_TIMEOUT);
+    }
+    
+    /**
+     * Reads Retry-After as either delay seconds or an HTTP date
+     */
+    private static OptionalLong retryAfterMillis(HttpResponse<?> response) {
+        return parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null), ZonedDateTime.now());
+    }
+    
+    /**
+     * @param value Retry-After header, or null
+     * @param now Current time, for the date form
+     * @return Delay in milliseconds, or empty if the header is missing or invalid
+     */
+    static OptionalLong parseRetryAfter(String value, ZonedDateTime now) {
+        if (value == null) {
+            return OptionalLong.empty();
+        }
+        
+        try {
+            long seconds = Long.parseLong(value.trim());
+            if (seconds < 0) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(Math.min(seconds, Long.MAX_VALUE / 1000) * 1000);
+        } catch (NumberFormatException e) {
+            // Not a number, try the date form
+        }
+        
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            long millis = Duration.between(now, retryAt).toMillis();
+            return OptionalLong.of(Math.max(0, millis));
+        } catch (DateTimeParseException e) {
+            return OptionalLong.empty();
+        }
+    }
+    
+    /**
+     * Response body that may be closed by another thread while it is being read.
+     * The network stream is closed first, which wakes a blocked read; the decoder
+     * is only released once no read is using it. A watchdog closes the body the
+     * same way when a read has made no progress for the read timeout.
+     */
+    static class ResponseBody extends InputStream {
+        private final InputStream network;
+        private final boolean gzip;
+        private final long readTimeoutNanos;
+        private final ScheduledFuture<?> watchdog;
+        private final Object lock = new Object();
+        private final byte[] single = new byte[1];
+        private InputStream decoded;
+        private volatile long readStarted;
+        private volatile boolean reading = false;
+        private volatile boolean closed = false;
+        private volatile boolean timedOut = false;
+        
+        /**
+         * @param network Body as received
+         * @param gzip Whether the body is gzip-encoded
+         * @param readTimeout Longest a read may wait for data
+         */
+        ResponseBody(InputStream network, boolean gzip, Duration readTimeout) {
+            this.network = network;
+            this.gzip = gzip;
+            this.readTimeoutNanos = readTimeout.toNanos();
+            long period = Math.max(10, readTimeout.toMillis() / 4);
+            this.watchdog = WATCHDOG.scheduleWithFixedDelay(this::checkProgress, period, period, TimeUnit.MILLISECONDS);
+        }
+        
+        private void checkProgress() {
+            if (reading && System.nanoTime() - readStarted > readTimeoutNanos) {
+                timedOut = true;
+                try {
+                    close();
+                } catch (IOException e) {
+                    // The blocked read fails either way
+                }
+            }
+        }
+        
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            synchronized (lock) {
+                readStarted = System.nanoTime();
+                reading = true;
+                try {
+                    return decoder().read(b, off, len);
+                } catch (IOException e) {
+                    if (timedOut) {
+                        throw new IOException("Response body read timed out after "
+                            + TimeUnit.NANOSECONDS.toSeconds(readTimeoutNanos) + " s", e);
+                    }
+                    if (closed) {
+                        throw new InterruptedIOException("Response closed while reading");
+                    }
+                    throw e;
+                } finally {
+                    reading = false;
+                }
+            }
+        }
+        
+        /**
+         * Opens the decoder on first use; reading the gzip header may block
+         */
+        private InputStream decoder() throws IOException {
+            if (decoded == null) {
+                decoded = gzip ? new GZIPInputStream(network, 16 * 1024) : network;
+            }
+            return decoded;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            synchronized (lock) {
+                return decoded == null ? 0 : decoded.available();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            watchdog.cancel(false);
+            network.close();
+            synchronized (lock) {
+                if (decoded != null) {
+                    decoded.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,554 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Minimal pull parser for JSON documents.
+ * Reads tokens straight from a Reader so large API responses never have to be
+ * held as one String or as a tree of JSONObjects. Field names and numbers are
+ * decoded from a reusable scratch buffer, so scanning rows does not allocate.
+ */
+public class JsonStreamReader implements AutoCloseable {
+
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT,
+        NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Nesting scopes
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    // Powers of ten that are exact as doubles, used for the fast number path
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos = 0;
+    private int limit = 0;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private Token peeked = null;
+
+    // Objects read directly inside the top-level array, i.e. rows of an API response
+    private int rowCount = 0;
+
+    // Holds the characters of the current name, string or number
+    private char[] scratch = new char[64];
+    private int scratchLength = 0;
+
+    public JsonStreamReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Returns the type of the next token without consuming it
+     */
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        if (stackSize == 2 && (stack[1] == EMPTY_ARRAY || stack[1] == NONEMPTY_ARRAY)) {
+            rowCount++;
+        }
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    /**
+     * @return Number of objects read so far from the top-level array
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns true if the current array or object has another element
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return new String(scratch, 0, scratchLength);
+    }
+
+    /**
+     * Consumes the next field name and returns its index in the given options,
+     * or -1 if it is not one of them. Does not allocate.
+     */
+    public int selectName(String[] options) throws IOException {
+        expect(Token.NAME);
+        for (int i = 0; i < options.length; i++) {
+            if (scratchEquals(options[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        peeked = null;
+        return new String(scratch, 0, scratchLength);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return scratchLength == 4; // "true" vs "false"
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Number out of int range");
+        }
+        return (int) value;
+    }
+
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        long value = 0;
+        boolean negative = false;
+        for (int i = 0; i < scratchLength; i++) {
+            char c = scratch[i];
+            if (c == '-' && i == 0) {
+                negative = true;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else {
+                // Fractional or exponent form, e.g. 1.0 or 1e3
+                return (long) Double.parseDouble(new String(scratch, 0, scratchLength));
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        return parseScratchDouble();
+    }
+
+    /**
+     * Reads a string holding an ISO-8601 timestamp such as
+     * 2023-03-05T15:03:43.316000+00:00 and returns it as epoch milliseconds.
+     * Timestamps without an offset are taken as UTC.
+     */
+    public long nextTimestampMillis() throws IOException {
+        expect(Token.STRING);
+        long millis = parseScratchTimestamp();
+        if (millis != Long.MIN_VALUE) {
+            return millis;
+        }
+
+        // Unusual layout, let java.time handle it
+        try {
+            return OffsetDateTime.parse(new String(scratch, 0, scratchLength)).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw syntaxError("Invalid timestamp");
+        }
+    }
+
+    /**
+     * Skips the next value, including any nested arrays or objects
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    peeked = null;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private Token doPeek() throws IOException {
+        int scope = stack[stackSize - 1];
+
+        if (scope == EMPTY_ARRAY) {
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+        } else if (scope == NONEMPTY_ARRAY) {
+            int c = nextNonWhitespace();
+            if (c == ']') {
+                return Token.END_ARRAY;
+            }
+            if (c != ',') {
+                throw syntaxError("Unterminated array");
+            }
+        } else if (scope == EMPTY_OBJECT || scope == NONEMPTY_OBJECT) {
+            stack[stackSize - 1] = DANGLING_NAME;
+            int c = nextNonWhitespace();
+            if (scope == NONEMPTY_OBJECT) {
+                if (c == '}') {
+                    stack[stackSize - 1] = NONEMPTY_OBJECT;
+                    return Token.END_OBJECT;
+                }
+                if (c != ',') {
+                    throw syntaxError("Unterminated object");
+                }
+                c = nextNonWhitespace();
+            } else if (c == '}') {
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return Token.END_OBJECT;
+            }
+            if (c != '"') {
+                throw syntaxError("Expected a field name");
+            }
+            readString();
+            return Token.NAME;
+        } else if (scope == DANGLING_NAME) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            if (nextNonWhitespace() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+        } else if (scope == EMPTY_DOCUMENT) {
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+        } else if (scope == NONEMPTY_DOCUMENT) {
+            if (nextNonWhitespace() == -1) {
+                return Token.END_DOCUMENT;
+            }
+            throw syntaxError("Multiple top-level values");
+        }
+
+        int c = nextNonWhitespace();
+        switch (c) {
+            case -1:
+                return Token.END_DOCUMENT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case ']':
+                if (scope == EMPTY_ARRAY) {
+                    return Token.END_ARRAY;
+                }
+                throw syntaxError("Unexpected ']'");
+            case '"':
+                readString();
+                return Token.STRING;
+            default:
+                pos--;
+                return readLiteral();
+        }
+    }
+
+    private Token readLiteral() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            if (pos == limit && !fill()) {
+                break;
+            }
+            char c = buffer[pos];
+            if (c == ',' || c == ']' || c == '}' || c == ':' || c <= ' ') {
+                break;
+            }
+            appendScratch(c);
+            pos++;
+        }
+
+        if (scratchLength == 0) {
+            throw syntaxError("Expected a value");
+        }
+        if (scratchEquals("null")) {
+            return Token.NULL;
+        }
+        if (scratchEquals("true") || scratchEquals("false")) {
+            return Token.BOOLEAN;
+        }
+        return Token.NUMBER;
+    }
+
+    private void readString() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                appendScratch(readEscape());
+            } else {
+                appendScratch(c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        char c = (char) read();
+        switch (c) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit((char) read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                return c; // \" \\ \/
+        }
+    }
+
+    /**
+     * Parses the number in the scratch buffer. Plain decimals with up to 15
+     * significant digits are computed exactly as mantissa / 10^n; anything
+     * else falls back to Double.parseDouble.
+     */
+    private double parseScratchDouble() {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean negative = false;
+        boolean inFraction = false;
+
+        for (int i = 0; i < scratchLength; i++) {
+            char c = scratch[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (inFraction) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if (c == '-' && i == 0) {
+                negative = true;
+            } else {
+                return Double.parseDouble(new String(scratch, 0, scratchLength));
+            }
+        }
+
+        if (digits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(scratch, 0, scratchLength));
+        }
+
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses yyyy-MM-ddTHH:mm:ss[.fraction][Z|+HH:MM] from the scratch buffer
+     *
+     * @return Epoch milliseconds, or Long.MIN_VALUE if the layout is not recognised
+     */
+    private long parseScratchTimestamp() {
+        if (scratchLength < 19 || scratch[4] != '-' || scratch[7] != '-'
+                || (scratch[10] != 'T' && scratch[10] != ' ') || scratch[13] != ':' || scratch[16] != ':') {
+            return Long.MIN_VALUE;
+        }
+
+        int year = scratchDigits(0, 4);
+        int month = scratchDigits(5, 2);
+        int day = scratchDigits(8, 2);
+        int hour = scratchDigits(11, 2);
+        int minute = scratchDigits(14, 2);
+        int second = scratchDigits(17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return Long.MIN_VALUE;
+        }
+
+        int i = 19;
+        int millis = 0;
+        if (i < scratchLength && scratch[i] == '.') {
+            i++;
+            int digits = 0;
+            while (i < scratchLength && scratch[i] >= '0' && scratch[i] <= '9') {
+                if (digits < 3) {
+                    millis = millis * 10 + (scratch[i] - '0');
+                }
+                digits++;
+                i++;
+            }
+            for (; digits < 3; digits++) {
+                millis *= 10;
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (i < scratchLength) {
+            char sign = scratch[i];
+            if (sign == 'Z' && i + 1 == scratchLength) {
+                offsetSeconds = 0;
+            } else if ((sign == '+' || sign == '-') && i + 6 == scratchLength && scratch[i + 3] == ':') {
+                int offsetHours = scratchDigits(i + 1, 2);
+                int offsetMinutes = scratchDigits(i + 4, 2);
+                if ((offsetHours | offsetMinutes) < 0) {
+                    return Long.MIN_VALUE;
+                }
+                offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            } else {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        // Days since 1970-01-01 for the proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097L + dayOfEra - 719468;
+
+        long epochSecond = epochDay * 86400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return epochSecond * 1000 + millis;
+    }
+
+    /**
+     * @return Value of the digits at the given position, or -1 if any is not a digit
+     */
+    private int scratchDigits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = scratch[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private boolean scratchEquals(String s) {
+        if (s.length() != scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendScratch(char c) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        }
+        scratch[scratchLength++] = c;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
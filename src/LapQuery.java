@@ -0,0 +1,703 @@
+import java.io.IOException;
+import java.util.*;
+import org.json.*;
+
+/**
+ * Small query language over the laps of loaded races, e.g.
+ *
+ *   SELECT count, min(lap_time), avg(lap_time), p90(lap_time)
+ *   WHERE driver IN (1, 16) AND lap BETWEEN 10 AND 40 AND NOT pit_out
+ *   GROUP BY driver ORDER BY avg(lap_time) LIMIT 10
+ *
+ * A query is parsed once into a plan of primitive bounds: a driver mask, a lap
+ * number range, a pit-out condition and a value range per timed column. The
+ * plan runs as one loop over the lap columns of each driver; the group of a
+ * driver is resolved before its loop, so no object is created per lap.
+ *
+ * Grammar (keywords are case-insensitive):
+ *   SELECT item {, item} [WHERE cond {AND cond}] [GROUP BY key {, key}]
+ *          [ORDER BY item [ASC|DESC]] [LIMIT n]
+ *   item := count | min(col) | max(col) | avg(col) | sum(col) | median(col) | pNN(col)
+ *   col  := lap_time | s1 | s2 | s3
+ *   cond := driver = n | driver != n | driver [NOT] IN (n, ...)
+ *         | lap op n | lap BETWEEN a AND b | col op x | col BETWEEN a AND b
+ *         | pit_out | NOT pit_out | pit_out = true|false
+ *   op   := = | < | <= | > | >=
+ *   key  := driver | session
+ *
+ * Aggregates skip laps without a value in their column (e.g. untimed laps).
+ * Percentiles come from a QuantileSketch and are accurate to 0.1%.
+ */
+public class LapQuery {
+    private static final int MAX_DRIVER_NUMBER = 100;
+
+    static final int LAP_TIME = 0;
+    static final int SECTOR1 = 1;
+    static final int SECTOR2 = 2;
+    static final int SECTOR3 = 3;
+    private static final String[] COLUMN_NAMES = { "lap_time", "s1", "s2", "s3" };
+
+    private static final int PIT_OUT_ANY = 0;
+    private static final int PIT_OUT_ONLY = 1;
+    private static final int PIT_OUT_EXCLUDED = 2;
+
+    private final String text;
+    private final List<Aggregate> aggregates = new ArrayList<>();
+
+    // Filter plan
+    private final boolean[] driverMask = new boolean[MAX_DRIVER_NUMBER];
+    private int lapMin = Integer.MIN_VALUE;
+    private int lapMax = Integer.MAX_VALUE;
+    private int pitOut = PIT_OUT_ANY;
+    private final double[] lowerBounds = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+    private final double[] upperBounds = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+    private final boolean[] bounded = new boolean[4];
+    private final boolean[] aggregated = new boolean[4]; // Columns read by the selected items
+    private final boolean[] sketched = new boolean[4];   // Columns that need a quantile sketch
+
+    private boolean groupByDriver = false;
+    private boolean groupBySession = false;
+    private int orderBy = -1; // Index into aggregates, or -1 for the group keys
+    private boolean descending = false;
+    private int limit = Integer.MAX_VALUE;
+
+    private LapQuery(String text) {
+        this.text = text;
+        Arrays.fill(driverMask, true);
+    }
+
+    /**
+     * Parses and compiles a query
+     *
+     * @throws IllegalArgumentException If the query is not valid, with the reason
+     */
+    public static LapQuery compile(String text) {
+        LapQuery query = new LapQuery(text.trim());
+        new Parser(tokenize(text), query).parse();
+        return query;
+    }
+
+    /**
+     * Runs the query over one race
+     */
+    public Result execute(RaceSession session) {
+        return execute(Collections.singletonList(session));
+    }
+
+    /**
+     * Runs the query over several races
+     */
+    public Result execute(Collection<RaceSession> sessions) {
+        Map<Long, Group> groups = new HashMap<>();
+        int sessionIndex = 0;
+        for (RaceSession session : sessions) {
+            for (DriverLapData driver : session.getDrivers()) {
+                int number = driver.getDriverNumber();
+                if (number < 0 || number >= MAX_DRIVER_NUMBER || !driverMask[number]) {
+                    continue;
+                }
+
+                long key = (groupBySession ? sessionIndex : 0L) * MAX_DRIVER_NUMBER
+                    + (groupByDriver ? number : 0);
+                Group group = groups.get(key);
+                if (group == null) {
+                    group = new Group(groupBySession ? session.getSessionInfo() : null,
+                        groupByDriver ? driver : null, aggregated, sketched);
+                    groups.put(key, group);
+                }
+                scan(driver, group);
+            }
+            sessionIndex++;
+        }
+
+        List<Group> ordered = new ArrayList<>();
+        for (Group group : groups.values()) {
+            if (group.rows > 0) {
+                ordered.add(group);
+            }
+        }
+        if (!groupByDriver && !groupBySession && ordered.isEmpty()) {
+            ordered.add(new Group(null, null, aggregated, sketched)); // An ungrouped query always has one row
+        }
+        ordered.sort(comparator());
+        if (ordered.size() > limit) {
+            ordered = ordered.subList(0, limit);
+        }
+        return new Result(this, ordered);
+    }
+
+    /**
+     * The filter and aggregation loop over one driver's lap columns
+     */
+    private void scan(DriverLapData driver, Group group) {
+        int laps = driver.getRecordedLapCount();
+        boolean anyBound = bounded[LAP_TIME] || bounded[SECTOR1] || bounded[SECTOR2] || bounded[SECTOR3];
+        double[] values = new double[4];
+
+        for (int i = 0; i < laps; i++) {
+            int lapNumber = driver.getLapNumber(i);
+            if (lapNumber < lapMin || lapNumber > lapMax) {
+                continue;
+            }
+            if (pitOut != PIT_OUT_ANY && driver.isPitOutLap(i) != (pitOut == PIT_OUT_ONLY)) {
+                continue;
+            }
+
+            values[LAP_TIME] = driver.getLapTime(i);
+            values[SECTOR1] = driver.getSector1(i);
+            values[SECTOR2] = driver.getSector2(i);
+            values[SECTOR3] = driver.getSector3(i);
+            if (anyBound && !withinBounds(values)) {
+                continue;
+            }
+            group.add(values);
+        }
+    }
+
+    private boolean withinBounds(double[] values) {
+        for (int column = 0; column < 4; column++) {
+            // NaN fails both comparisons, so a bounded column needs a value
+            if (bounded[column] && !(values[column] >= lowerBounds[column] && values[column] <= upperBounds[column])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Comparator<Group> comparator() {
+        Comparator<Group> comparator;
+        if (orderBy >= 0) {
+            Aggregate aggregate = aggregates.get(orderBy);
+            // Empty groups (NaN) sort last in either direction
+            comparator = (a, b) -> {
+                double x = aggregate.value(a);
+                double y = aggregate.value(b);
+                if (Double.isNaN(x) || Double.isNaN(y)) {
+                    return Boolean.compare(Double.isNaN(x), Double.isNaN(y));
+                }
+                return descending ? Double.compare(y, x) : Double.compare(x, y);
+            };
+        } else {
+            comparator = (a, b) -> 0;
+        }
+
+        // Ties, and queries without ORDER BY, follow the calendar and then the finishing order
+        return comparator
+            .thenComparingInt(group -> group.session == null ? 0 : group.session.getSeason())
+            .thenComparingInt(group -> group.session == null ? 0 : group.session.getRound())
+            .thenComparingInt(group -> group.driver == null ? 0 : group.driver.getFinishingPosition())
+            .thenComparingInt(group -> group.driver == null ? 0 : group.driver.getDriverNumber());
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Running aggregates of one group, one slot per column
+     */
+    private static class Group {
+        final SessionInfo session;
+        final DriverLapData driver;
+        long rows = 0;
+        final long[] counts = new long[4];
+        final double[] sums = new double[4];
+        final double[] mins = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        final double[] maxes = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        final QuantileSketch[] sketches = new QuantileSketch[4];
+        private final boolean[] aggregated;
+
+        Group(SessionInfo session, DriverLapData driver, boolean[] aggregated, boolean[] sketched) {
+            this.session = session;
+            this.driver = driver;
+            this.aggregated = aggregated;
+            for (int column = 0; column < 4; column++) {
+                if (sketched[column]) {
+                    sketches[column] = new QuantileSketch();
+                }
+            }
+        }
+
+        void add(double[] values) {
+            rows++;
+            for (int column = 0; column < 4; column++) {
+                double value = values[column];
+                if (!aggregated[column] || Double.isNaN(value)) {
+                    continue;
+                }
+                counts[column]++;
+                sums[column] += value;
+                mins[column] = Math.min(mins[column], value);
+                maxes[column] = Math.max(maxes[column], value);
+                if (sketches[column] != null) {
+                    sketches[column].add(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * One item of the SELECT list
+     */
+    private static class Aggregate {
+        final String function; // count, min, max, avg, sum or quantile
+        final int column;      // -1 for count
+        final double quantile;
+        final String label;
+
+        Aggregate(String function, int column, double quantile, String label) {
+            this.function = function;
+            this.column = column;
+            this.quantile = quantile;
+            this.label = label;
+        }
+
+        double value(Group group) {
+            if (column < 0) {
+                return group.rows;
+            }
+            if (group.counts[column] == 0) {
+                return Double.NaN;
+            }
+            switch (function) {
+                case "min":
+                    return group.mins[column];
+                case "max":
+                    return group.maxes[column];
+                case "sum":
+                    return group.sums[column];
+                case "avg":
+                    return group.sums[column] / group.counts[column];
+                default:
+                    return group.sketches[column].getQuantile(quantile);
+            }
+        }
+    }
+
+    /**
+     * Rows of an executed query
+     */
+    public static class Result {
+        private final LapQuery query;
+        private final List<Group> groups;
+
+        private Result(LapQuery query, List<Group> groups) {
+            this.query = query;
+            this.groups = groups;
+        }
+
+        public int getRowCount() {
+            return groups.size();
+        }
+
+        /**
+         * Writes the rows as a table: group keys first, then the selected items
+         */
+        public void write(TableRenderer table) throws IOException {
+            if (query.groupBySession) {
+                table.column("Season", 7).column("Round", 6);
+            }
+            if (query.groupByDriver) {
+                table.column("No.", 5).column("Driver", 25);
+            }
+            for (Aggregate aggregate : query.aggregates) {
+                table.column(aggregate.label, Math.max(12, aggregate.label.length() + 2));
+            }
+            table.writeHeader();
+
+            for (Group group : groups) {
+                if (query.groupBySession) {
+                    table.cell(group.session.getSeason()).cell(group.session.getRound());
+                }
+                if (query.groupByDriver) {
+                    table.cell(group.driver.getDriverNumber()).cell(group.driver.getDriverName());
+                }
+                for (Aggregate aggregate : query.aggregates) {
+                    double value = aggregate.value(group);
+                    if (aggregate.column < 0) {
+                        table.cell((long) value);
+                    } else if (Double.isNaN(value)) {
+                        table.cell("-");
+                    } else if (aggregate.function.equals("sum")) {
+                        table.seconds(value);
+                    } else if (aggregate.column == LAP_TIME) {
+                        table.lapTime(value);
+                    } else {
+                        table.sectorTime(value);
+                    }
+                }
+                table.endRow();
+            }
+            table.endTable();
+        }
+
+        /**
+         * @return Rows as JSON objects keyed by the group keys and item labels; times in seconds
+         */
+        public JSONArray toJson() {
+            JSONArray rows = new JSONArray();
+            for (Group group : groups) {
+                JSONObject row = new JSONObject();
+                if (query.groupBySession) {
+                    row.put("season", group.session.getSeason()).put("round", group.session.getRound());
+                }
+                if (query.groupByDriver) {
+                    row.put("driverNumber", group.driver.getDriverNumber())
+                        .put("driver", group.driver.getDriverName());
+                }
+                for (Aggregate aggregate : query.aggregates) {
+                    double value = aggregate.value(group);
+                    if (aggregate.column < 0) {
+                        row.put(aggregate.label, (long) value);
+                    } else if (!Double.isNaN(value)) {
+                        row.put(aggregate.label, value);
+                    }
+                }
+                rows.put(row);
+            }
+            return rows;
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',' || c == '*') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                boolean twoChars = i + 1 < text.length() && text.charAt(i + 1) == '=';
+                tokens.add(text.substring(i, twoChars ? i + 2 : i + 1));
+                i += twoChars ? 2 : 1;
+            } else {
+                int start = i;
+                while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i))
+                        || text.charAt(i) == '_' || text.charAt(i) == '.' || text.charAt(i) == ':')) {
+                    i++;
+                }
+                if (start == i) {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + i);
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Recursive descent parser that fills in the plan of a query
+     */
+    private static class Parser {
+        private final List<String> tokens;
+        private final LapQuery query;
+        private int position = 0;
+
+        Parser(List<String> tokens, LapQuery query) {
+            this.tokens = tokens;
+            this.query = query;
+        }
+
+        void parse() {
+            expect("select");
+            do {
+                query.aggregates.add(parseAggregate());
+            } while (accept(","));
+
+            if (accept("where")) {
+                do {
+                    parseCondition();
+                } while (accept("and"));
+            }
+            if (accept("group")) {
+                expect("by");
+                do {
+                    String key = next("group key");
+                    if (key.equals("driver")) {
+                        query.groupByDriver = true;
+                    } else if (key.equals("session")) {
+                        query.groupBySession = true;
+                    } else {
+                        throw new IllegalArgumentException("Can only group by driver or session, not: " + key);
+                    }
+                } while (accept(","));
+            }
+            if (accept("order")) {
+                expect("by");
+                parseOrder();
+            }
+            if (accept("limit")) {
+                query.limit = parseInt(next("limit"));
+                if (query.limit < 1) {
+                    throw new IllegalArgumentException("LIMIT must be at least 1");
+                }
+            }
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException("Unexpected '" + tokens.get(position) + "'");
+            }
+        }
+
+        private Aggregate parseAggregate() {
+            String function = next("select item");
+            if (function.equals("count")) {
+                if (accept("(")) {
+                    accept("*");
+                    expect(")");
+                }
+                return new Aggregate("count", -1, 0, "count");
+            }
+
+            double quantile = 0;
+            String name = function;
+            if (function.equals("median")) {
+                quantile = 0.5;
+                name = "quantile";
+            } else if (function.matches("p\\d{1,2}")) {
+                quantile = Integer.parseInt(function.substring(1)) / 100.0;
+                name = "quantile";
+            } else if (!Arrays.asList("min", "max", "avg", "sum").contains(function)) {
+                throw new IllegalArgumentException("Unknown function: " + function);
+            }
+
+            expect("(");
+            int column = parseColumn(next("column"));
+            expect(")");
+            query.aggregated[column] = true;
+            if (name.equals("quantile")) {
+                query.sketched[column] = true;
+            }
+            return new Aggregate(name, column, quantile, function + "(" + COLUMN_NAMES[column] + ")");
+        }
+
+        private void parseCondition() {
+            if (accept("not")) {
+                expect("pit_out");
+                query.pitOut = PIT_OUT_EXCLUDED;
+                return;
+            }
+
+            String field = next("condition");
+            switch (field) {
+                case "pit_out":
+                    if (accept("=")) {
+                        String value = next("true or false");
+                        if (!value.equals("true") && !value.equals("false")) {
+                            throw new IllegalArgumentException("pit_out expects true or false, not: " + value);
+                        }
+                        query.pitOut = value.equals("true") ? PIT_OUT_ONLY : PIT_OUT_EXCLUDED;
+                    } else {
+                        query.pitOut = PIT_OUT_ONLY;
+                    }
+                    return;
+                case "driver":
+                    parseDriverCondition();
+                    return;
+                case "lap":
+                    parseLapCondition();
+                    return;
+                default:
+                    parseValueCondition(parseColumn(field));
+            }
+        }
+
+        private void parseDriverCondition() {
+            boolean[] selected = new boolean[MAX_DRIVER_NUMBER];
+            boolean negate = false;
+            String operator = next("operator");
+            if (operator.equals("=") || operator.equals("!=")) {
+                selected[parseDriverNumber(next("driver number"))] = true;
+                negate = operator.equals("!=");
+            } else {
+                if (operator.equals("not")) {
+                    negate = true;
+                    operator = next("in");
+                }
+                if (!operator.equals("in")) {
+                    throw new IllegalArgumentException("Expected =, != or IN after driver, not: " + operator);
+                }
+                expect("(");
+                do {
+                    selected[parseDriverNumber(next("driver number"))] = true;
+                } while (accept(","));
+                expect(")");
+            }
+
+            // Several driver conditions narrow each other down
+            for (int number = 0; number < MAX_DRIVER_NUMBER; number++) {
+                query.driverMask[number] &= selected[number] != negate;
+            }
+        }
+
+        private void parseLapCondition() {
+            String operator = next("operator");
+            if (operator.equals("between")) {
+                int from = parseInt(next("lap"));
+                expect("and");
+                int to = parseInt(next("lap"));
+                query.lapMin = Math.max(query.lapMin, from);
+                query.lapMax = Math.min(query.lapMax, to);
+                return;
+            }
+
+            int lap = parseInt(next("lap"));
+            switch (operator) {
+                case "=":
+                    query.lapMin = Math.max(query.lapMin, lap);
+                    query.lapMax = Math.min(query.lapMax, lap);
+                    break;
+                case ">":
+                    query.lapMin = Math.max(query.lapMin, lap + 1);
+                    break;
+                case ">=":
+                    query.lapMin = Math.max(query.lapMin, lap);
+                    break;
+                case "<":
+                    query.lapMax = Math.min(query.lapMax, lap - 1);
+                    break;
+                case "<=":
+                    query.lapMax = Math.min(query.lapMax, lap);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported operator for lap: " + operator);
+            }
+        }
+
+        /**
+         * Turns a comparison into a closed range, so the loop only tests lower <= value <= upper
+         */
+        private void parseValueCondition(int column) {
+            String operator = next("operator");
+            double lower = Double.NEGATIVE_INFINITY;
+            double upper = Double.POSITIVE_INFINITY;
+            if (operator.equals("between")) {
+                lower = parseTime(next("time"));
+                expect("and");
+                upper = parseTime(next("time"));
+            } else {
+                double value = parseTime(next("time"));
+                switch (operator) {
+                    case "=":
+                        lower = value;
+                        upper = value;
+                        break;
+                    case ">":
+                        lower = Math.nextUp(value);
+                        break;
+                    case ">=":
+                        lower = value;
+                        break;
+                    case "<":
+                        upper = Math.nextDown(value);
+                        break;
+                    case "<=":
+                        upper = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported operator for "
+                            + COLUMN_NAMES[column] + ": " + operator);
+                }
+            }
+            query.bounded[column] = true;
+            query.lowerBounds[column] = Math.max(query.lowerBounds[column], lower);
+            query.upperBounds[column] = Math.min(query.upperBounds[column], upper);
+        }
+
+        private void parseOrder() {
+            Aggregate order = parseAggregate();
+            for (int i = 0; i < query.aggregates.size(); i++) {
+                if (query.aggregates.get(i).label.equals(order.label)) {
+                    query.orderBy = i;
+                }
+            }
+            if (query.orderBy < 0) {
+                throw new IllegalArgumentException("ORDER BY must be one of the selected items: " + order.label);
+            }
+            if (accept("desc")) {
+                query.descending = true;
+            } else {
+                accept("asc");
+            }
+        }
+
+        private static int parseColumn(String name) {
+            switch (name) {
+                case "lap_time":
+                    return LAP_TIME;
+                case "s1":
+                case "sector1":
+                    return SECTOR1;
+                case "s2":
+                case "sector2":
+                    return SECTOR2;
+                case "s3":
+                case "sector3":
+                    return SECTOR3;
+                default:
+                    throw new IllegalArgumentException("Unknown column: " + name
+                        + " (expected lap_time, s1, s2 or s3)");
+            }
+        }
+
+        private static int parseDriverNumber(String token) {
+            int number = parseInt(token);
+            if (number < 0 || number >= MAX_DRIVER_NUMBER) {
+                throw new IllegalArgumentException("Driver number out of range: " + number);
+            }
+            return number;
+        }
+
+        private static int parseInt(String token) {
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number but was: " + token);
+            }
+        }
+
+        /**
+         * Accepts seconds (92.5) or minutes and seconds (1:32.5)
+         */
+        private static double parseTime(String token) {
+            try {
+                int colon = token.indexOf(':');
+                if (colon < 0) {
+                    return Double.parseDouble(token);
+                }
+                return Integer.parseInt(token.substring(0, colon)) * 60
+                    + Double.parseDouble(token.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a time like 92.5 or 1:32.5 but was: " + token);
+            }
+        }
+
+        private String next(String expected) {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Query ends early, expected " + expected);
+            }
+            return tokens.get(position++);
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            String actual = next("'" + token + "'");
+            if (!actual.equals(token)) {
+                throw new IllegalArgumentException("Expected '" + token + "' but was '" + actual + "'");
+            }
+        }
+    }
+}
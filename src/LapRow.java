@@ -0,0 +1,90 @@
+/**
+ * One row of the OpenF1 laps endpoint.
+ * A single instance is reused for every row while streaming, so consumers
+ * must copy out the fields they need before returning.
+ */
+public class LapRow {
+    // Rows without a driver number are dropped by the parser
+    static final int NO_DRIVER = -1;
+    
+    int driverNumber;
+    int lapNumber;
+    double lapDuration;
+    boolean pitOutLap;
+    double sector1;
+    double sector2;
+    double sector3;
+    long startMillis;
+    
+    void reset() {
+        driverNumber = NO_DRIVER;
+        lapNumber = 0;
+        lapDuration = Double.NaN;
+        pitOutLap = false;
+        sector1 = Double.NaN;
+        sector2 = Double.NaN;
+        sector3 = Double.NaN;
+        startMillis = DriverLapData.NO_START_TIME;
+    }
+    
+    /**
+     * @return Independent copy of this row, for consumers that need to keep it
+     */
+    public LapRow copy() {
+        LapRow copy = new LapRow();
+        copy.driverNumber = driverNumber;
+        copy.lapNumber = lapNumber;
+        copy.lapDuration = lapDuration;
+        copy.pitOutLap = pitOutLap;
+        copy.sector1 = sector1;
+        copy.sector2 = sector2;
+        copy.sector3 = sector3;
+        copy.startMillis = startMillis;
+        return copy;
+    }
+    
+    public int getDriverNumber() {
+        return driverNumber;
+    }
+    
+    public int getLapNumber() {
+        return lapNumber;
+    }
+    
+    /**
+     * @return Lap duration in seconds, or NaN if the lap has no time
+     */
+    public double getLapDuration() {
+        return lapDuration;
+    }
+    
+    public boolean isPitOutLap() {
+        return pitOutLap;
+    }
+    
+    public boolean hasLapDuration() {
+        return !Double.isNaN(lapDuration);
+    }
+    
+    /**
+     * @return Sector 1 duration in seconds, or NaN if not timed
+     */
+    public double getSector1() {
+        return sector1;
+    }
+    
+    public double getSector2() {
+        return sector2;
+    }
+    
+    public double getSector3() {
+        return sector3;
+    }
+    
+    /**
+     * @return Lap start as epoch milliseconds, or DriverLapData.NO_START_TIME
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+}
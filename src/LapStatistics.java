@@ -0,0 +1,153 @@
+import java.util.Collection;
+
+/**
+ * One-pass lap time statistics that can be merged across drivers, races and seasons.
+ * Mean and standard deviation use Welford's running update; the median and
+ * percentiles come from a QuantileSketch, so memory stays bounded no matter
+ * how many laps are added.
+ *
+ * Clean-air pace is the mean of the representative laps: laps are left out if
+ * they are pit-out or in-laps, or slower than 107% of the median (safety car,
+ * virtual safety car, traffic, damage).
+ */
+public class LapStatistics {
+    public static final double OUTLIER_THRESHOLD = 1.07;
+
+    // All timed laps
+    private final QuantileSketch sketch = new QuantileSketch();
+    private long count = 0;
+    private double mean = 0.0;
+    private double sumOfSquares = 0.0; // Sum of squared differences from the mean
+
+    // Laps that can count towards clean-air pace (no in-laps)
+    private final QuantileSketch racingLaps = new QuantileSketch();
+
+    /**
+     * Computes the statistics of one driver's timed laps
+     */
+    public static LapStatistics of(DriverLapData driver) {
+        LapStatistics statistics = new LapStatistics();
+        statistics.addDriver(driver);
+        return statistics;
+    }
+
+    /**
+     * Computes the statistics of all timed laps of several drivers
+     */
+    public static LapStatistics of(Collection<DriverLapData> drivers) {
+        LapStatistics statistics = new LapStatistics();
+        for (DriverLapData driver : drivers) {
+            statistics.addDriver(driver);
+        }
+        return statistics;
+    }
+
+    /**
+     * Adds every timed lap of a driver. A lap followed by a pit-out lap is an in-lap.
+     */
+    public void addDriver(DriverLapData driver) {
+        int laps = driver.getRecordedLapCount();
+        for (int i = 0; i < laps; i++) {
+            if (driver.isTimedLap(i)) {
+                boolean inLap = i + 1 < laps && driver.isPitOutLap(i + 1);
+                addLap(driver.getLapTime(i), inLap);
+            }
+        }
+    }
+
+    /**
+     * Adds one timed lap
+     *
+     * @param lapTime Lap time in seconds
+     * @param inLap True if the driver pitted at the end of the lap
+     */
+    public void addLap(double lapTime, boolean inLap) {
+        if (!(lapTime > 0) || Double.isInfinite(lapTime)) {
+            return;
+        }
+
+        count++;
+        double delta = lapTime - mean;
+        mean += delta / count;
+        sumOfSquares += delta * (lapTime - mean);
+
+        sketch.add(lapTime);
+        if (!inLap) {
+            racingLaps.add(lapTime);
+        }
+    }
+
+    /**
+     * Adds all laps of other statistics to these
+     */
+    public void merge(LapStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        // Chan et al. combination of two running means and variances
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        sumOfSquares += other.sumOfSquares + delta * delta * count * other.count / total;
+        count = total;
+
+        sketch.merge(other.sketch);
+        racingLaps.merge(other.racingLaps);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Mean lap time, or NaN without laps
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return Sample standard deviation, or NaN with fewer than two laps
+     */
+    public double getStandardDeviation() {
+        return count < 2 ? Double.NaN : Math.sqrt(sumOfSquares / (count - 1));
+    }
+
+    public double getMedian() {
+        return sketch.getQuantile(0.5);
+    }
+
+    /**
+     * @param percentile Between 0 and 100, e.g. 10 for p10
+     */
+    public double getPercentile(double percentile) {
+        return sketch.getQuantile(percentile / 100.0);
+    }
+
+    public double getMin() {
+        return sketch.getQuantile(0.0);
+    }
+
+    public double getMax() {
+        return sketch.getQuantile(1.0);
+    }
+
+    /**
+     * @return Mean of the laps within 107% of the median, excluding in-laps, or NaN
+     */
+    public double getCleanAirPace() {
+        return racingLaps.getMeanAtMost(cleanAirLimit());
+    }
+
+    /**
+     * @return Number of laps that count towards the clean-air pace
+     */
+    public long getCleanAirLapCount() {
+        return racingLaps.getCountAtMost(cleanAirLimit());
+    }
+
+    private double cleanAirLimit() {
+        return racingLaps.getQuantile(0.5) * OUTLIER_THRESHOLD;
+    }
+}
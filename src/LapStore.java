@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Binary columnar store for parsed sessions.
+ * A session is written once after ingestion and read back through a
+ * MappedByteBuffer, so reloading a race needs no JSON parsing at all.
+ * 
+ * File layout (little-endian):
+ *   header   magic, version, sessionKey, season, round, driverCount, lapCount (int)
+ *   index    per driver: driverNumber, finishingPosition, firstLap, lapCount (int)
+ *   padding  up to an 8-byte boundary
+ *   columns  lapDuration, sector1, sector2, sector3 (double), startMillis (long),
+ *            lapNumber (int), flags (byte)
+ */
+public class LapStore {
+    static final int MAGIC = 0x46314C50; // "F1LP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 7 * 4;
+    static final int INDEX_ENTRY_BYTES = 4 * 4;
+    static final byte FLAG_PIT_OUT = 1;
+    
+    // Far above any real race; keeps a corrupt header from overflowing the layout
+    static final int MAX_DRIVERS = 100;
+    static final int MAX_LAPS = 100 * 1000;
+    
+    private static final String FILE_SUFFIX = ".f1laps";
+    
+    private final Path directory;
+    
+    public LapStore(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Creates a store next to the default response cache
+     */
+    public static LapStore defaultStore() {
+        return new LapStore(Paths.get(System.getProperty("user.home"), ".f1-laptime-cache", "sessions"));
+    }
+    
+    /**
+     * Creates a store for sessions loaded from another API root, such as a local
+     * stand-in server, so its session keys never replace sessions of the real API
+     */
+    public static LapStore forBaseUrl(String baseUrl) {
+        if (baseUrl.equals(F1ApiService.OPENF1_BASE_URL)) {
+            return defaultStore();
+        }
+        String name = baseUrl.replaceFirst("^[a-z]+://", "").replaceAll("[^A-Za-z0-9.-]", "_");
+        return new LapStore(Paths.get(System.getProperty("user.home"), ".f1-laptime-cache", "sessions-" + name));
+    }
+    
+    /**
+     * Writes a session, replacing any previous file for the same session key
+     */
+    public void write(RaceSession session) throws IOException {
+        List<DriverLapData> drivers = session.getDrivers();
+        int driverCount = drivers.size();
+        int lapCount = 0;
+        for (DriverLapData driver : drivers) {
+            lapCount += driver.getRecordedLapCount();
+        }
+        
+        Layout layout = new Layout(driverCount, lapCount);
+        ByteBuffer buffer = ByteBuffer.allocate(layout.totalBytes).order(ByteOrder.LITTLE_ENDIAN);
+        
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(session.getSessionKey());
+        buffer.putInt(session.getSessionInfo().getSeason());
+        buffer.putInt(session.getSessionInfo().getRound());
+        buffer.putInt(driverCount);
+        buffer.putInt(lapCount);
+        
+        int row = 0;
+        for (DriverLapData driver : drivers) {
+            buffer.putInt(driver.getDriverNumber());
+            buffer.putInt(driver.getFinishingPosition());
+            buffer.putInt(row);
+            buffer.putInt(driver.getRecordedLapCount());
+            
+            for (int i = 0; i < driver.getRecordedLapCount(); i++, row++) {
+                buffer.putDouble(layout.lapDurationOffset + row * 8, driver.getLapTime(i));
+                buffer.putDouble(layout.sector1Offset + row * 8, driver.getSector1(i));
+                buffer.putDouble(layout.sector2Offset + row * 8, driver.getSector2(i));
+                buffer.putDouble(layout.sector3Offset + row * 8, driver.getSector3(i));
+                buffer.putLong(layout.startMillisOffset + row * 8, driver.getLapStartMillis(i));
+                buffer.putInt(layout.lapNumberOffset + row * 4, driver.getLapNumber(i));
+                buffer.put(layout.flagsOffset + row, driver.isPitOutLap(i) ? FLAG_PIT_OUT : 0);
+            }
+        }
+        
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "session", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, pathFor(session.getSessionKey()), 
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Memory-maps a stored session
+     * 
+     * @return MappedLapFile, or null if the session is not stored or the file is unreadable or corrupt
+     */
+    public MappedLapFile open(int sessionKey) throws IOException {
+        Path file = pathFor(sessionKey);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null; // Written by another version, will be rewritten
+        }
+        
+        int driverCount = buffer.getInt(20);
+        int lapCount = buffer.getInt(24);
+        if (driverCount < 0 || driverCount > MAX_DRIVERS || lapCount < 0 || lapCount > MAX_LAPS) {
+            return null; // Corrupt, will be rewritten
+        }
+        Layout layout = new Layout(driverCount, lapCount);
+        if (buffer.capacity() < layout.totalBytes) {
+            return null; // Truncated
+        }
+        if (!validIndex(buffer, layout)) {
+            return null; // Corrupt, will be rewritten
+        }
+        return new MappedLapFile(buffer, layout);
+    }
+    
+    /**
+     * Checks that every driver number is in range and its laps lie within the lap columns
+     */
+    private static boolean validIndex(ByteBuffer buffer, Layout layout) {
+        for (int d = 0; d < layout.driverCount; d++) {
+            int entry = HEADER_BYTES + d * INDEX_ENTRY_BYTES;
+            int driverNumber = buffer.getInt(entry);
+            int firstLap = buffer.getInt(entry + 8);
+            int lapCount = buffer.getInt(entry + 12);
+            if (driverNumber < 0 || driverNumber >= MAX_DRIVERS) {
+                return false;
+            }
+            if (firstLap < 0 || lapCount < 0 || firstLap > layout.lapCount - lapCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Path pathFor(int sessionKey) {
+        return directory.resolve(sessionKey + FILE_SUFFIX);
+    }
+    
+    /**
+     * Byte offsets of the column sections for a given size
+     */
+    static class Layout {
+        final int driverCount;
+        final int lapCount;
+        final int lapDurationOffset;
+        final int sector1Offset;
+        final int sector2Offset;
+        final int sector3Offset;
+        final int startMillisOffset;
+        final int lapNumberOffset;
+        final int flagsOffset;
+        final int totalBytes;
+        
+        Layout(int driverCount, int lapCount) {
+            this.driverCount = driverCount;
+            this.lapCount = lapCount;
+            
+            int indexEnd = HEADER_BYTES + driverCount * INDEX_ENTRY_BYTES;
+            this.lapDurationOffset = (indexEnd + 7) & ~7; // 8-byte aligned
+            this.sector1Offset = lapDurationOffset + lapCount * 8;
+            this.sector2Offset = sector1Offset + lapCount * 8;
+            this.sector3Offset = sector2Offset + lapCount * 8;
+            this.startMillisOffset = sector3Offset + lapCount * 8;
+            this.lapNumberOffset = startMillisOffset + lapCount * 8;
+            this.flagsOffset = lapNumberOffset + lapCount * 4;
+            this.totalBytes = flagsOffset + lapCount;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows of the OpenF1 laps endpoint into a consumer.
+ * Only the fields the analyzer uses are decoded; everything else is skipped.
+ */
+public class LapStreamParser {
+    private static final String[] FIELDS = {
+        "driver_number", "lap_number", "lap_duration", "is_pit_out_lap",
+        "duration_sector_1", "duration_sector_2", "duration_sector_3", "date_start"
+    };
+    
+    private LapStreamParser() {
+    }
+    
+    /**
+     * Reads a JSON array of laps, calling the consumer once per row.
+     * Rows without a driver number are skipped.
+     * 
+     * @param reader Reader positioned at the start of the array
+     * @param consumer Receives a reused LapRow for each lap
+     * @return Number of rows read, including skipped ones
+     */
+    public static int parse(JsonStreamReader reader, Consumer<LapRow> consumer) throws IOException {
+        LapRow row = new LapRow();
+        int rows = 0;
+        
+        reader.beginArray();
+        while (reader.hasNext()) {
+            row.reset();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int field = reader.selectName(FIELDS);
+                if (reader.peek() == JsonStreamReader.Token.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case 0:
+                        row.driverNumber = reader.nextInt();
+                        break;
+                    case 1:
+                        row.lapNumber = reader.nextInt();
+                        break;
+                    case 2:
+                        row.lapDuration = reader.nextDouble();
+                        break;
+                    case 3:
+                        row.pitOutLap = reader.nextBoolean();
+                        break;
+                    case 4:
+                        row.sector1 = reader.nextDouble();
+                        break;
+                    case 5:
+                        row.sector2 = reader.nextDouble();
+                        break;
+                    case 6:
+                        row.sector3 = reader.nextDouble();
+                        break;
+                    case 7:
+                        row.startMillis = reader.nextTimestampMillis();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            
+            // A lap that cannot be attributed to a driver is useless
+            if (row.driverNumber != LapRow.NO_DRIVER) {
+                consumer.accept(row);
+            }
+            rows++;
+        }
+        reader.endArray();
+        
+        return rows;
+    }
+}
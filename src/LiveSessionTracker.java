@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Follows a running session by polling the laps and position endpoints.
+ * Each refresh only requests rows newer than what has already been seen and
+ * appends them to the in-memory DriverLapData, so the cost of a refresh is
+ * proportional to the new laps rather than to the whole session.
+ *
+ * A lap row is only published once the lap is complete, so a slow lap (in-lap,
+ * safety car) can appear after laps that started later. The lap cursor
+ * therefore stays at the oldest start among each driver's latest lap, and rows
+ * that were already recorded are skipped by lap number.
+ */
+public class LiveSessionTracker {
+    private static final int MAX_DRIVER_NUMBER = 100;
+
+    // A driver without a new lap for this long has retired or stopped and no longer holds back the cursor
+    private static final long STALE_LAP_MILLIS = 10 * 60 * 1000L;
+    private static final DateTimeFormatter QUERY_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+
+    private final F1ApiService apiService;
+    private final int sessionKey;
+    private final DriverRoster roster;
+
+    private final DriverLapData[] drivers = new DriverLapData[MAX_DRIVER_NUMBER];
+    private final List<DriverLapData> driverList = new ArrayList<>();
+    private final int[] lastLapNumber = new int[MAX_DRIVER_NUMBER];
+    private final long[] lastLapStartMillis = new long[MAX_DRIVER_NUMBER]; // Includes laps still being driven
+    private final int[] positions = new int[MAX_DRIVER_NUMBER];
+
+    // Only rows at or after these times are requested on the next refresh
+    private long lapCursorMillis = DriverLapData.NO_START_TIME;
+    private long positionCursorMillis = DriverLapData.NO_START_TIME;
+
+    private LiveSessionTracker(F1ApiService apiService, int sessionKey, DriverRoster roster) {
+        this.apiService = apiService;
+        this.sessionKey = sessionKey;
+        this.roster = roster;
+        Arrays.fill(lastLapStartMillis, DriverLapData.NO_START_TIME);
+    }
+
+    /**
+     * Starts tracking a session
+     *
+     * @param sessionKey Session key, or -1 for the session that is currently running
+     * @return LiveSessionTracker with no data loaded yet
+     */
+    public static LiveSessionTracker start(F1ApiService apiService, int sessionKey) throws Exception {
+        int key = sessionKey > 0 ? sessionKey : resolveLatestSessionKey(apiService);
+        int season = Year.now().getValue();
+        return new LiveSessionTracker(apiService, key, apiService.fetchRoster(season, key));
+    }
+
+    public int getSessionKey() {
+        return sessionKey;
+    }
+
+    /**
+     * Fetches laps and position updates that arrived since the last refresh
+     *
+     * @return Number of laps appended
+     */
+    public int refresh() throws Exception {
+        int appended = refreshLaps();
+        refreshPositions();
+        return appended;
+    }
+
+    /**
+     * @return Drivers ordered by their current position (unknown positions last)
+     */
+    public List<DriverLapData> getStandings() {
+        List<DriverLapData> standings = new ArrayList<>(driverList);
+        standings.sort(Comparator.comparingInt(DriverLapData::getFinishingPosition));
+        return standings;
+    }
+
+    /**
+     * @return Snapshot of the session so far, for the regular analyses
+     */
+    public RaceSession toSession() {
+        return new RaceSession(new SessionInfo(Year.now().getValue(), 0),
+            sessionKey, getStandings(), roster);
+    }
+
+    private int refreshLaps() throws Exception {
+        String endpoint = String.format("%s/laps?session_key=%d", apiService.getBaseUrl(), sessionKey);
+        if (lapCursorMillis != DriverLapData.NO_START_TIME) {
+            endpoint += "&date_start%3E%3D" + formatQueryTime(lapCursorMillis);
+        }
+
+        List<LapRow> rows = new ArrayList<>();
+        apiService.streamUncachedRequest(endpoint, reader ->
+            LapStreamParser.parse(reader, row -> rows.add(row.copy())));
+
+        // Apply in lap order so each driver's columns stay sorted
+        rows.sort(Comparator.comparingInt(LapRow::getDriverNumber).thenComparingInt(LapRow::getLapNumber));
+
+        int[] latestInBatch = new int[MAX_DRIVER_NUMBER];
+        for (LapRow row : rows) {
+            if (inRange(row.getDriverNumber())) {
+                latestInBatch[row.getDriverNumber()] = Math.max(latestInBatch[row.getDriverNumber()], row.getLapNumber());
+            }
+        }
+
+        int appended = 0;
+        for (LapRow row : rows) {
+            int number = row.getDriverNumber();
+            if (!inRange(number) || row.getLapNumber() <= lastLapNumber[number]) {
+                continue; // Already recorded on an earlier refresh
+            }
+            lastLapStartMillis[number] = Math.max(lastLapStartMillis[number], row.getStartMillis());
+
+            // The newest lap of a driver without a time is still being driven;
+            // leave it for the next refresh, the cursor stays at or before its start
+            if (!row.hasLapDuration() && row.getLapNumber() == latestInBatch[number]) {
+                continue;
+            }
+
+            driverFor(number).addLap(row.getLapNumber(), row.getLapDuration(),
+                row.getSector1(), row.getSector2(), row.getSector3(),
+                row.isPitOutLap(), row.getStartMillis());
+            lastLapNumber[number] = row.getLapNumber();
+            appended++;
+        }
+
+        lapCursorMillis = nextLapCursor();
+        return appended;
+    }
+
+    /**
+     * The next lap of every driver starts after their latest known lap, so
+     * requesting from the oldest of those starts cannot miss a lap that is
+     * published late. Drivers whose latest lap is long past are left out, so a
+     * retirement does not keep the window growing.
+     */
+    private long nextLapCursor() {
+        long newest = DriverLapData.NO_START_TIME;
+        for (long start : lastLapStartMillis) {
+            newest = Math.max(newest, start);
+        }
+        if (newest == DriverLapData.NO_START_TIME) {
+            return lapCursorMillis;
+        }
+
+        long cursor = newest;
+        for (long start : lastLapStartMillis) {
+            if (start != DriverLapData.NO_START_TIME && start >= newest - STALE_LAP_MILLIS) {
+                cursor = Math.min(cursor, start);
+            }
+        }
+        return cursor;
+    }
+
+    private void refreshPositions() throws Exception {
+        String endpoint = String.format("%s/position?session_key=%d", apiService.getBaseUrl(), sessionKey);
+        if (positionCursorMillis != DriverLapData.NO_START_TIME) {
+            // Inclusive, as updates sharing the cursor's timestamp may arrive after it was read.
+            // Rows seen before set the same position again, so repeating them is harmless.
+            endpoint += "&date%3E%3D" + formatQueryTime(positionCursorMillis);
+        }
+
+        FinishingOrder update = apiService.streamUncachedRequest(endpoint, FinishingOrderLoader::reduce);
+
+        for (int number = 0; number < MAX_DRIVER_NUMBER; number++) {
+            int position = update.getPosition(number);
+            if (position != FinishingOrder.NOT_CLASSIFIED) {
+                positions[number] = position;
+                driverFor(number).setFinishingPosition(position);
+            }
+        }
+
+        if (update.getLatestUpdateMillis() != DriverLapData.NO_START_TIME) {
+            positionCursorMillis = Math.max(positionCursorMillis, update.getLatestUpdateMillis());
+        }
+    }
+
+    private DriverLapData driverFor(int driverNumber) {
+        DriverLapData driver = drivers[driverNumber];
+        if (driver == null) {
+            driver = new DriverLapData(driverNumber);
+            driver.setDriverName(roster.getName(driverNumber));
+            if (positions[driverNumber] != FinishingOrder.NOT_CLASSIFIED) {
+                driver.setFinishingPosition(positions[driverNumber]);
+            }
+            drivers[driverNumber] = driver;
+            driverList.add(driver);
+        }
+        return driver;
+    }
+
+    private static boolean inRange(int driverNumber) {
+        return driverNumber >= 0 && driverNumber < MAX_DRIVER_NUMBER;
+    }
+
+    private static String formatQueryTime(long epochMillis) {
+        return QUERY_FORMAT.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    /**
+     * Looks up the key of the session that is currently running
+     */
+    private static int resolveLatestSessionKey(F1ApiService apiService) throws Exception {
+        String endpoint = apiService.getBaseUrl() + "/sessions?session_key=latest";
+        int key = apiService.streamUncachedRequest(endpoint, LiveSessionTracker::readFirstSessionKey);
+        if (key <= 0) {
+            throw new Exception("No live session found");
+        }
+        return key;
+    }
+
+    private static int readFirstSessionKey(JsonStreamReader reader) throws IOException {
+        int sessionKey = -1;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("session_key") && sessionKey < 0
+                        && reader.peek() == JsonStreamReader.Token.NUMBER) {
+                    sessionKey = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return sessionKey;
+    }
+}
@@ -0,0 +1,116 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of a session written by LapStore.
+ * All accessors read straight from the mapped file, so scanning laps creates
+ * no objects. Lap rows of one driver are contiguous: see getFirstLap/getLapCount.
+ */
+public class MappedLapFile {
+    private final ByteBuffer buffer;
+    private final LapStore.Layout layout;
+    
+    MappedLapFile(ByteBuffer buffer, LapStore.Layout layout) {
+        this.buffer = buffer;
+        this.layout = layout;
+    }
+    
+    public int getSessionKey() {
+        return buffer.getInt(8);
+    }
+    
+    public int getSeason() {
+        return buffer.getInt(12);
+    }
+    
+    public int getRound() {
+        return buffer.getInt(16);
+    }
+    
+    public int getDriverCount() {
+        return layout.driverCount;
+    }
+    
+    /**
+     * @return Total number of lap rows across all drivers
+     */
+    public int getTotalLapCount() {
+        return layout.lapCount;
+    }
+    
+    // Driver index accessors (driver 0 .. getDriverCount() - 1, in finishing order)
+    public int getDriverNumber(int driver) {
+        return buffer.getInt(indexOffset(driver));
+    }
+    
+    public int getFinishingPosition(int driver) {
+        return buffer.getInt(indexOffset(driver) + 4);
+    }
+    
+    public int getFirstLap(int driver) {
+        return buffer.getInt(indexOffset(driver) + 8);
+    }
+    
+    public int getLapCount(int driver) {
+        return buffer.getInt(indexOffset(driver) + 12);
+    }
+    
+    // Lap column accessors (row 0 .. getTotalLapCount() - 1)
+    public double getLapDuration(int row) {
+        return buffer.getDouble(layout.lapDurationOffset + row * 8);
+    }
+    
+    public double getSector1(int row) {
+        return buffer.getDouble(layout.sector1Offset + row * 8);
+    }
+    
+    public double getSector2(int row) {
+        return buffer.getDouble(layout.sector2Offset + row * 8);
+    }
+    
+    public double getSector3(int row) {
+        return buffer.getDouble(layout.sector3Offset + row * 8);
+    }
+    
+    public long getLapStartMillis(int row) {
+        return buffer.getLong(layout.startMillisOffset + row * 8);
+    }
+    
+    public int getLapNumber(int row) {
+        return buffer.getInt(layout.lapNumberOffset + row * 4);
+    }
+    
+    public boolean isPitOutLap(int row) {
+        return (buffer.get(layout.flagsOffset + row) & LapStore.FLAG_PIT_OUT) != 0;
+    }
+    
+    /**
+     * Copies the columns into DriverLapData objects for the interactive analyses
+     * 
+     * @param roster Driver names for the session
+     * @return RaceSession with drivers in finishing order
+     */
+    public RaceSession toSession(DriverRoster roster) {
+        List<DriverLapData> drivers = new ArrayList<>(getDriverCount());
+        
+        for (int d = 0; d < getDriverCount(); d++) {
+            DriverLapData driver = new DriverLapData(getDriverNumber(d));
+            driver.setFinishingPosition(getFinishingPosition(d));
+            
+            int end = getFirstLap(d) + getLapCount(d);
+            for (int row = getFirstLap(d); row < end; row++) {
+                driver.addLap(getLapNumber(row), getLapDuration(row), 
+                    getSector1(row), getSector2(row), getSector3(row), 
+                    isPitOutLap(row), getLapStartMillis(row));
+            }
+            drivers.add(driver);
+        }
+        
+        return new RaceSession(new SessionInfo(getSeason(), getRound()), getSessionKey(), drivers, roster);
+    }
+    
+    private int indexOffset(int driver) {
+        return LapStore.HEADER_BYTES + driver * LapStore.INDEX_ENTRY_BYTES;
+    }
+}
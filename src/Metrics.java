@@ -0,0 +1,375 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.*;
+import org.json.*;
+
+/**
+ * Counters and timers for API requests and analysis stages.
+ * Each API endpoint records request latency (until the response starts),
+ * time spent reading the body, time spent parsing it, body bytes, rows and
+ * cache hits. Body bytes are counted after gzip decoding, the same for
+ * network and cache responses, so they measure the JSON that was parsed
+ * rather than the traffic. Named stages time the work done after loading. Every request and
+ * stage is also emitted as a JFR event, so a flight recording shows them on
+ * the timeline next to GC and thread activity.
+ *
+ * All counters are lock-free and can be updated from any thread.
+ */
+public class Metrics {
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, StageStats> stages = new ConcurrentHashMap<>();
+    private final long createdNanos = System.nanoTime();
+
+    /**
+     * Starts measuring one API request
+     *
+     * @param url Request URL; its path after the API version names the endpoint
+     */
+    public Request startRequest(String url) {
+        String endpoint = endpointOf(url);
+        return new Request(endpoints.computeIfAbsent(endpoint, name -> new EndpointStats()), endpoint, url);
+    }
+
+    /**
+     * Counts a request that joined an identical request in flight instead of being sent
+     */
+    public void requestShared(String url) {
+        endpoints.computeIfAbsent(endpointOf(url), name -> new EndpointStats()).shared.increment();
+    }
+
+    /**
+     * Starts timing a stage; call stop() on the timer in a finally block
+     *
+     * @param name Stage name, e.g. "session.assemble"
+     */
+    public Timer startTimer(String name) {
+        return new Timer(stages.computeIfAbsent(name, key -> new StageStats()), name);
+    }
+
+    /**
+     * Writes a summary table of all endpoints and stages
+     */
+    public void printSummary(TableRenderer table) throws IOException {
+        table.section("Request Statistics");
+        table.column("Endpoint", 10).column("Requests", 9).column("Hits", 6).column("Shared", 7).column("Errors", 7)
+            .column("Body KB", 9).column("Rows", 9).column("Latency ms", 11).column("Read ms", 9)
+            .column("Parse ms", 9).writeHeader();
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            EndpointStats stats = entry.getValue();
+            table.cell(entry.getKey())
+                .cell(stats.requests.sum())
+                .cell(stats.cacheHits.sum())
+                .cell(stats.shared.sum())
+                .cell(stats.errors.sum())
+                .cell(stats.bodyBytes.sum() / 1024)
+                .cell(stats.rows.sum())
+                .cell(TimeUnit.NANOSECONDS.toMillis(stats.latencyNanos.sum()))
+                .cell(TimeUnit.NANOSECONDS.toMillis(stats.readNanos.sum()))
+                .cell(TimeUnit.NANOSECONDS.toMillis(stats.parseNanos.sum()))
+                .endRow();
+        }
+        table.endTable();
+
+        if (!stages.isEmpty()) {
+            table.section("Stage Timings");
+            table.column("Stage", 22).column("Count", 7).column("Total ms", 10).column("Max ms", 8).writeHeader();
+            for (Map.Entry<String, StageStats> entry : new TreeMap<>(stages).entrySet()) {
+                StageStats stats = entry.getValue();
+                table.cell(entry.getKey())
+                    .cell(stats.count.sum())
+                    .cell(TimeUnit.NANOSECONDS.toMillis(stats.totalNanos.sum()))
+                    .cell(TimeUnit.NANOSECONDS.toMillis(stats.maxNanos.get()))
+                    .endRow();
+            }
+            table.endTable();
+        }
+    }
+
+    /**
+     * @return All counters as JSON, with times in milliseconds
+     */
+    public JSONObject toJson() {
+        JSONObject endpointsJson = new JSONObject();
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            endpointsJson.put(entry.getKey(), new JSONObject()
+                .put("requests", stats.requests.sum())
+                .put("cacheHits", stats.cacheHits.sum())
+                .put("cacheMisses", stats.requests.sum() - stats.cacheHits.sum())
+                .put("shared", stats.shared.sum())
+                .put("errors", stats.errors.sum())
+                .put("bodyBytes", stats.bodyBytes.sum())
+                .put("rows", stats.rows.sum())
+                .put("latencyMillis", toMillis(stats.latencyNanos.sum()))
+                .put("maxLatencyMillis", toMillis(stats.maxLatencyNanos.get()))
+                .put("readMillis", toMillis(stats.readNanos.sum()))
+                .put("parseMillis", toMillis(stats.parseNanos.sum())));
+        }
+
+        JSONObject stagesJson = new JSONObject();
+        for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+            StageStats stats = entry.getValue();
+            stagesJson.put(entry.getKey(), new JSONObject()
+                .put("count", stats.count.sum())
+                .put("totalMillis", toMillis(stats.totalNanos.sum()))
+                .put("maxMillis", toMillis(stats.maxNanos.get())));
+        }
+
+        return new JSONObject()
+            .put("uptimeMillis", toMillis(System.nanoTime() - createdNanos))
+            .put("endpoints", endpointsJson)
+            .put("stages", stagesJson);
+    }
+
+    /**
+     * Writes the JSON form of the counters to a file
+     */
+    public void writeJson(Path file) throws IOException {
+        Files.write(file, toJson().toString(2).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Extracts the endpoint name, e.g. "laps" from ".../v1/laps?session_key=1"
+     */
+    static String endpointOf(String url) {
+        int end = url.indexOf('?');
+        if (end < 0) {
+            end = url.length();
+        }
+        int start = url.lastIndexOf('/', end - 1) + 1;
+        return url.substring(start, end);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder cacheHits = new LongAdder();
+        final LongAdder shared = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bodyBytes = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+        final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder readNanos = new LongAdder();
+        final LongAdder parseNanos = new LongAdder();
+    }
+
+    private static class StageStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Measurements of one request, recorded when it finishes or fails
+     */
+    public static class Request {
+        private final EndpointStats stats;
+        private final ApiRequestEvent event = new ApiRequestEvent();
+        private final long startNanos = System.nanoTime();
+        private long latencyNanos = 0;
+        private boolean cacheHit = false;
+
+        private Request(EndpointStats stats, String endpoint, String url) {
+            this.stats = stats;
+            event.begin();
+            event.endpoint = endpoint;
+            event.url = url;
+        }
+
+        /**
+         * Marks the request as served from the cache
+         */
+        public void cacheHit() {
+            cacheHit = true;
+            responseStarted();
+        }
+
+        /**
+         * Records the latency until the response (or cache entry) was available
+         */
+        public void responseStarted() {
+            latencyNanos = System.nanoTime() - startNanos;
+        }
+
+        /**
+         * Wraps the decoded response body so its bytes and the time spent reading are counted
+         */
+        public MeteredInputStream meter(InputStream body) {
+            return new MeteredInputStream(body);
+        }
+
+        /**
+         * Records a successful request
+         *
+         * @param body Metered body of the response
+         * @param rows Number of rows parsed
+         */
+        public void finish(MeteredInputStream body, int rows) {
+            long totalNanos = System.nanoTime() - startNanos;
+            long readNanos = body.readNanos;
+            record(body.bodyBytes, rows, readNanos, totalNanos - latencyNanos - readNanos);
+        }
+
+        /**
+         * Records a successful request whose body was read in full before parsing
+         *
+         * @param bodyBytes Decoded size of the body
+         * @param parseNanos Time spent parsing it
+         * @param rows Number of rows parsed
+         */
+        public void finish(long bodyBytes, long parseNanos, int rows) {
+            long readNanos = System.nanoTime() - startNanos - latencyNanos - parseNanos;
+            record(bodyBytes, rows, Math.max(0, readNanos), parseNanos);
+        }
+
+        /**
+         * Records a failed request
+         */
+        public void fail() {
+            stats.requests.increment();
+            stats.errors.increment();
+            event.failed = true;
+            commitEvent();
+        }
+
+        private void record(long bodyBytes, int rows, long readNanos, long parseNanos) {
+            stats.requests.increment();
+            if (cacheHit) {
+                stats.cacheHits.increment();
+            }
+            stats.bodyBytes.add(bodyBytes);
+            stats.rows.add(rows);
+            stats.latencyNanos.add(latencyNanos);
+            stats.maxLatencyNanos.accumulate(latencyNanos);
+            stats.readNanos.add(readNanos);
+            stats.parseNanos.add(Math.max(0, parseNanos));
+
+            event.cacheHit = cacheHit;
+            event.bodyBytes = bodyBytes;
+            event.rows = rows;
+            event.latency = latencyNanos;
+            event.parseTime = Math.max(0, parseNanos);
+            commitEvent();
+        }
+
+        private void commitEvent() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Times one stage; the time is recorded when it is stopped
+     */
+    public static class Timer {
+        private final StageStats stats;
+        private final StageEvent event = new StageEvent();
+        private final long startNanos = System.nanoTime();
+
+        private Timer(StageStats stats, String name) {
+            this.stats = stats;
+            event.begin();
+            event.stage = name;
+        }
+
+        public void stop() {
+            long elapsed = System.nanoTime() - startNanos;
+            stats.count.increment();
+            stats.totalNanos.add(elapsed);
+            stats.maxNanos.accumulate(elapsed);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Input stream that counts bytes and the time spent waiting in read()
+     */
+    public static class MeteredInputStream extends FilterInputStream {
+        private long bodyBytes = 0;
+        private long readNanos = 0;
+
+        MeteredInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            readNanos += System.nanoTime() - start;
+            if (b != -1) {
+                bodyBytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int count = super.read(b, off, len);
+            readNanos += System.nanoTime() - start;
+            if (count > 0) {
+                bodyBytes += count;
+            }
+            return count;
+        }
+    }
+
+    @Name("f1.ApiRequest")
+    @Label("F1 API Request")
+    @Category("F1 Lap Time Analyzer")
+    @Description("One request to the OpenF1 API, served from the network or the cache")
+    static class ApiRequestEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("URL")
+        String url;
+
+        @Label("Cache Hit")
+        boolean cacheHit;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("Body Bytes")
+        @Description("Size of the body after gzip decoding")
+        @DataAmount
+        long bodyBytes;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Latency")
+        @Timespan
+        long latency;
+
+        @Label("Parse Time")
+        @Timespan
+        long parseTime;
+    }
+
+    @Name("f1.Stage")
+    @Label("F1 Analysis Stage")
+    @Category("F1 Lap Time Analyzer")
+    static class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+    }
+}
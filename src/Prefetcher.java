@@ -0,0 +1,153 @@
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Speculative background work for the interactive mode.
+ * While the user reads the race list, the race they will most likely pick is
+ * loaded; while they read the menu, results that are expensive to compute are
+ * prepared. Everything runs on one low-priority daemon thread, one task at a time.
+ *
+ * The race's requests run on F1ApiService's own low-priority prefetch pool,
+ * so a foreground load never queues behind them on the request threads.
+ * A prefetched race is picked up through F1ApiService itself: a foreground
+ * fetchSession for the same race joins the load in flight, and once it has
+ * finished the cached responses and stored session make it fast. A prefetch
+ * for a race the user did not pick is cancelled: its requests are cancelled
+ * and the responses they are downloading closed, so it stops competing for
+ * the network.
+ */
+public class Prefetcher implements AutoCloseable {
+    private final F1ApiService apiService;
+    private final ExecutorService executor;
+
+    private Future<?> sessionPrefetch;
+    private SessionInfo sessionTarget;
+
+    public Prefetcher(F1ApiService apiService) {
+        this.apiService = apiService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "f1-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Picks the round a user is most likely to look at: the latest race that has already been held
+     *
+     * @param races Season calendar ordered by round
+     * @param today Current date
+     * @return Round number, or -1 if no race of the season has been held yet
+     */
+    public static int likelyRound(List<RaceInfo> races, LocalDate today) {
+        String todayText = today.toString(); // Same yyyy-MM-dd form as RaceInfo dates
+        int round = -1;
+        for (RaceInfo race : races) {
+            if (race.getDate().compareTo(todayText) <= 0) {
+                round = race.getRound();
+            }
+        }
+        return round;
+    }
+
+    /**
+     * Starts loading a race in the background, replacing any earlier race prefetch
+     */
+    public synchronized void prefetchSession(int season, int round) {
+        cancelSession();
+        sessionTarget = new SessionInfo(season, round);
+        sessionPrefetch = executor.submit(() -> {
+            try {
+                apiService.prefetchSession(season, round);
+            } catch (Exception e) {
+                // Speculative, the foreground load reports its own errors
+            }
+        });
+    }
+
+    /**
+     * Cancels the race prefetch unless it is loading the given race,
+     * which the foreground load will then join
+     */
+    public synchronized void keepOnly(int season, int round) {
+        if (!new SessionInfo(season, round).equals(sessionTarget)) {
+            cancelSession();
+        }
+    }
+
+    /**
+     * Computes a value in the background
+     *
+     * @return Handle to pass to await
+     */
+    public <T> Warmed<T> warm(Callable<T> task) {
+        Warmed<T> warmed = new Warmed<>();
+        executor.execute(() -> {
+            if (!warmed.claimed.compareAndSet(false, true)) {
+                return; // Already computed in the foreground
+            }
+            try {
+                warmed.result.complete(task.call());
+            } catch (Throwable e) {
+                warmed.result.completeExceptionally(e);
+            }
+        });
+        return warmed;
+    }
+
+    /**
+     * Returns a value computed by warm, computing it in the foreground if the
+     * background task has not started yet or failed. A task that is already
+     * running is waited for, as it is further along than a new computation.
+     *
+     * @param warmed Handle returned by warm, or null
+     * @param compute Foreground computation of the same value
+     */
+    public static <T> T await(Warmed<T> warmed, Callable<T> compute) throws Exception {
+        if (warmed == null) {
+            return compute.call();
+        }
+        if (warmed.claimed.compareAndSet(false, true)) {
+            // Completed here as well, so a later await does not wait forever
+            try {
+                T value = compute.call();
+                warmed.result.complete(value);
+                return value;
+            } catch (Exception e) {
+                warmed.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return warmed.result.get();
+        } catch (ExecutionException e) {
+            return compute.call();
+        }
+    }
+
+    /**
+     * Value computed by warm; whichever of the background thread and the
+     * foreground claims it first computes it
+     */
+    public static class Warmed<T> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+    }
+
+    @Override
+    public synchronized void close() {
+        cancelSession();
+        executor.shutdownNow();
+    }
+
+    private void cancelSession() {
+        if (sessionPrefetch != null) {
+            sessionPrefetch.cancel(true);
+            sessionPrefetch = null;
+            sessionTarget = null;
+        }
+    }
+}
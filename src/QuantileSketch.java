@@ -0,0 +1,189 @@
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with a relative error guarantee (DDSketch style).
+ * Positive values are counted in logarithmic buckets whose width is a fixed
+ * fraction of their value, so any quantile is returned within that fraction
+ * of the true value. Lap times span a narrow range, so even at 0.1% accuracy
+ * a whole season of laps fits in a few hundred buckets.
+ *
+ * Each bucket also keeps the sum of its values, which lets trimmed means
+ * (such as the mean of all laps below a threshold) be computed exactly up to
+ * the one bucket that straddles the threshold.
+ */
+public class QuantileSketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.001;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // Bucket i of the arrays holds values with index minIndex + i
+    private long[] counts = new long[0];
+    private double[] sums = new double[0];
+    private int minIndex = 0;
+
+    private long count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * @param relativeAccuracy Maximum relative error of returned quantiles, e.g. 0.001
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds a value; values that are not positive are ignored
+     */
+    public void add(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            return;
+        }
+
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        int slot = slotFor(index);
+        counts[slot]++;
+        sums[slot] += value;
+
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another sketch with the same accuracy
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        if (other.count == 0) {
+            return;
+        }
+
+        // Grow once to cover both ranges before copying
+        slotFor(other.minIndex);
+        slotFor(other.minIndex + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            int slot = other.minIndex + i - minIndex;
+            counts[slot] += other.counts[i];
+            sums[slot] += other.sums[i];
+        }
+
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the value at a quantile
+     *
+     * @param quantile Between 0 and 1, e.g. 0.5 for the median
+     * @return Value within the relative accuracy of the true quantile, or NaN if empty
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile <= 0) {
+            return min;
+        }
+        if (quantile >= 1) {
+            return max;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return clamp(valueOf(minIndex + i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the mean of the values that are at most the given limit.
+     * Only the bucket containing the limit is decided by its representative value.
+     *
+     * @return Mean, or NaN if no value is below the limit
+     */
+    public double getMeanAtMost(double limit) {
+        long included = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && valueOf(minIndex + i) <= limit) {
+                included += counts[i];
+                sum += sums[i];
+            }
+        }
+        return included == 0 ? Double.NaN : sum / included;
+    }
+
+    /**
+     * Returns the number of values that are at most the given limit, decided per bucket
+     */
+    public long getCountAtMost(double limit) {
+        long included = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (valueOf(minIndex + i) <= limit) {
+                included += counts[i];
+            }
+        }
+        return included;
+    }
+
+    /**
+     * Representative value of a bucket, within the relative accuracy of all its values
+     */
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Returns the array slot of a bucket index, growing the arrays if needed
+     */
+    private int slotFor(int index) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            sums = new double[16];
+            minIndex = index - 8;
+        }
+
+        if (index < minIndex) {
+            int shift = Math.max(minIndex - index, counts.length / 2);
+            long[] newCounts = new long[counts.length + shift];
+            double[] newSums = new double[sums.length + shift];
+            System.arraycopy(counts, 0, newCounts, shift, counts.length);
+            System.arraycopy(sums, 0, newSums, shift, sums.length);
+            counts = newCounts;
+            sums = newSums;
+            minIndex -= shift;
+        } else if (index >= minIndex + counts.length) {
+            int capacity = Math.max(index - minIndex + 1, counts.length + counts.length / 2);
+            counts = Arrays.copyOf(counts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+        }
+        return index - minIndex;
+    }
+}
@@ -0,0 +1,391 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.*;
+import java.util.concurrent.*;
+import org.json.*;
+
+/**
+ * Embedded HTTP server that answers the analyses of the interactive menu as JSON.
+ * Every request is handled on its own virtual thread when the JVM has them
+ * (Java 21+), otherwise on a pooled platform thread. Loaded races are kept in
+ * one least-recently-used cache shared by all clients, so repeated queries on
+ * a race are answered from memory; concurrent first requests for the same race
+ * share a single load through F1ApiService.
+ *
+ * Endpoints (all GET):
+ *   /api/races?season=2024
+ *   /api/results?season=2024&round=1
+ *   /api/fastest-laps?season=2024&round=1&count=3
+ *   /api/driver?season=2024&round=1&driver=1
+ *   /api/sectors?season=2024&round=1&drivers=1,16
+ *   /api/query?season=2024&round=1&q=SELECT+count,avg(lap_time)+GROUP+BY+driver
+ *   /api/metrics
+ *
+ * The server listens on the loopback interface unless another address is
+ * given, as it has no authentication and every request may start downloads.
+ */
+public class QueryServer implements Closeable {
+    private static final int FALLBACK_THREADS = 200;
+    static final int MAX_FASTEST_LAPS = 100;
+    private static final Set<String> ENDPOINTS = 
+        Set.of("races", "results", "fastest-laps", "driver", "sectors", "query", "metrics");
+
+    // Races of the running season can still change, like in the response cache
+    private static final long CURRENT_SEASON_TTL_MILLIS = 15 * 60 * 1000L;
+
+    private final F1ApiService apiService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int maxSessions;
+
+    // Access-ordered, so iteration starts at the least recently used race
+    private final LinkedHashMap<SessionInfo, LoadedSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a server that only accepts connections from this machine
+     * 
+     * @param port Local port, or 0 for any free port
+     * @param maxSessions Number of loaded races kept in memory
+     */
+    public QueryServer(F1ApiService apiService, int port, int maxSessions) throws IOException {
+        this(apiService, InetAddress.getLoopbackAddress(), port, maxSessions);
+    }
+
+    /**
+     * @param address Address to listen on, e.g. 0.0.0.0 for every interface
+     * @param port Local port, or 0 for any free port
+     * @param maxSessions Number of loaded races kept in memory
+     */
+    public QueryServer(F1ApiService apiService, InetAddress address, int port, int maxSessions) throws IOException {
+        this.apiService = apiService;
+        this.maxSessions = Math.max(1, maxSessions);
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetAddress getAddress() {
+        return server.getAddress().getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * One thread per request: virtual if available, otherwise a bounded platform pool
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class))
+                .invoke();
+        } catch (Throwable e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "f1-query");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Metrics.Timer timer = null;
+        try {
+            String endpoint = exchange.getRequestURI().getPath().substring("/api/".length());
+            if (!ENDPOINTS.contains(endpoint)) {
+                sendError(exchange, 404, "Unknown endpoint: " + endpoint);
+                return;
+            }
+            timer = apiService.getMetrics().startTimer("query." + endpoint);
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            send(exchange, 200, answer(endpoint, query).toString());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (Exception e) {
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            if (timer != null) {
+                timer.stop();
+            }
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return JSONObject or JSONArray for the endpoint
+     */
+    private Object answer(String endpoint, Map<String, String> query) throws Exception {
+        switch (endpoint) {
+            case "races":
+                return races(intParam(query, "season"));
+            case "results":
+                return results(session(query));
+            case "fastest-laps":
+                return fastestLaps(session(query), query.containsKey("count") ? intParam(query, "count") : 3);
+            case "driver":
+                return driver(session(query), intParam(query, "driver"));
+            case "sectors":
+                return sectors(session(query), intListParam(query, "drivers"));
+            case "query":
+                return lapQuery(session(query), query.get("q"));
+            case "metrics":
+                return apiService.getMetrics().toJson();
+            default:
+                throw new NoSuchElementException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    private JSONArray races(int season) throws Exception {
+        JSONArray races = new JSONArray();
+        for (RaceInfo race : apiService.fetchRaces(season)) {
+            races.put(new JSONObject()
+                .put("round", race.getRound())
+                .put("circuit", race.getCircuitName())
+                .put("country", race.getCountryName())
+                .put("date", race.getDate())
+                .put("sessionKey", race.getSessionKey()));
+        }
+        return races;
+    }
+
+    private static JSONObject results(RaceSession session) {
+        JSONArray drivers = new JSONArray();
+        for (DriverLapData driver : session.getDrivers()) {
+            drivers.put(driverSummary(driver)
+                .put("averageLapTime", driver.getAverageLapTime())
+                .put("laps", driver.getTotalLaps()));
+        }
+        return raceHeader(session).put("drivers", drivers);
+    }
+
+    private static JSONObject fastestLaps(RaceSession session, int count) {
+        if (count < 1 || count > MAX_FASTEST_LAPS) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_FASTEST_LAPS);
+        }
+        JSONArray laps = new JSONArray();
+        int rank = 1;
+        for (RankedLap lap : FastestLapSelector.topFastest(session, count)) {
+            laps.put(new JSONObject()
+                .put("rank", rank++)
+                .put("driverNumber", lap.getDriver().getDriverNumber())
+                .put("driver", lap.getDriver().getDriverName())
+                .put("lap", lap.getLapNumber())
+                .put("lapTime", lap.getLapTime())
+                .put("formatted", Formatter.formatLapTime(lap.getLapTime())));
+        }
+        return raceHeader(session).put("laps", laps);
+    }
+
+    private static JSONObject driver(RaceSession session, int driverNumber) {
+        DriverLapData driver = session.getDriver(driverNumber);
+        if (driver == null) {
+            throw new NoSuchElementException("Driver not found: " + driverNumber);
+        }
+
+        LapStatistics stats = LapStatistics.of(driver);
+        JSONObject summary = driverSummary(driver)
+            .put("laps", driver.getTotalLaps())
+            .put("fastestLapNumber", driver.getFastestLapNumber())
+            .put("averageLapTime", driver.getAverageLapTime())
+            .put("cleanAirLaps", stats.getCleanAirLapCount());
+        // NaN with too few laps (e.g. no deviation for one lap), left out like in query rows
+        putFinite(summary, "medianLapTime", stats.getMedian());
+        putFinite(summary, "p10LapTime", stats.getPercentile(10));
+        putFinite(summary, "p90LapTime", stats.getPercentile(90));
+        putFinite(summary, "standardDeviation", stats.getStandardDeviation());
+        putFinite(summary, "cleanAirPace", stats.getCleanAirPace());
+        return raceHeader(session).put("driver", summary);
+    }
+
+    /**
+     * Adds a number unless it is NaN or infinite, which JSON cannot represent
+     */
+    private static void putFinite(JSONObject object, String key, double value) {
+        if (Double.isFinite(value)) {
+            object.put(key, value);
+        }
+    }
+
+    private static JSONObject sectors(RaceSession session, List<Integer> driverNumbers) {
+        if (driverNumbers.isEmpty()) {
+            throw new IllegalArgumentException("drivers is required, e.g. drivers=1,16");
+        }
+
+        JSONArray drivers = new JSONArray();
+        for (int driverNumber : driverNumbers) {
+            DriverLapData driver = session.getDriver(driverNumber);
+            SectorTimes sectors = session.getSectorTimes(driverNumber);
+            if (driver == null || sectors == null) {
+                continue; // Reported as missing by its absence, like the console table
+            }
+            drivers.put(new JSONObject()
+                .put("driverNumber", driverNumber)
+                .put("driver", driver.getDriverName())
+                .put("sector1", sectors.getSector1())
+                .put("sector2", sectors.getSector2())
+                .put("sector3", sectors.getSector3()));
+        }
+        return raceHeader(session).put("drivers", drivers);
+    }
+
+    private static JSONObject lapQuery(RaceSession session, String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("q is required, e.g. q=SELECT count GROUP BY driver");
+        }
+        return raceHeader(session).put("rows", LapQuery.compile(text).execute(session).toJson());
+    }
+
+    private static JSONObject raceHeader(RaceSession session) {
+        return new JSONObject()
+            .put("season", session.getSessionInfo().getSeason())
+            .put("round", session.getSessionInfo().getRound())
+            .put("sessionKey", session.getSessionKey());
+    }
+
+    private static JSONObject driverSummary(DriverLapData driver) {
+        JSONObject summary = new JSONObject()
+            .put("driverNumber", driver.getDriverNumber())
+            .put("driver", driver.getDriverName());
+        if (driver.getFinishingPosition() < 999) {
+            summary.put("position", driver.getFinishingPosition());
+        }
+        if (driver.getTotalLaps() > 0) {
+            summary.put("fastestLapTime", driver.getFastestLapTime());
+        }
+        return summary;
+    }
+
+    /**
+     * Returns a loaded race from the shared cache, loading it on first use
+     */
+    private RaceSession session(Map<String, String> query) throws Exception {
+        SessionInfo key = new SessionInfo(intParam(query, "season"), intParam(query, "round"));
+        synchronized (sessions) {
+            LoadedSession loaded = sessions.get(key);
+            if (loaded != null && !loaded.isExpired()) {
+                return loaded.session;
+            }
+        }
+
+        // The calendar is indexed in memory, so unknown rounds are rejected without a load
+        int rounds = apiService.fetchRaces(key.getSeason()).size();
+        if (key.getRound() < 1 || key.getRound() > rounds) {
+            throw new NoSuchElementException("No race for " + key);
+        }
+
+        // Loaded outside the lock; concurrent loads of one race are shared by F1ApiService
+        RaceSession session = apiService.fetchSession(key.getSeason(), key.getRound());
+
+        synchronized (sessions) {
+            sessions.put(key, new LoadedSession(session));
+            Iterator<LoadedSession> oldest = sessions.values().iterator();
+            while (sessions.size() > maxSessions) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+        return session;
+    }
+
+    private static int intParam(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " expects a number but was: " + value);
+        }
+    }
+
+    private static List<Integer> intListParam(Map<String, String> query, String name) {
+        List<Integer> values = new ArrayList<>();
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            return values;
+        }
+        try {
+            for (String part : value.split(",")) {
+                values.add(Integer.parseInt(part.trim()));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " expects numbers like 1,16 but was: " + value);
+        }
+        return values;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new JSONObject().put("error", message == null ? "Internal error" : message).toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Race in the shared cache with the time it was loaded
+     */
+    private static class LoadedSession {
+        final RaceSession session;
+        final long loadedAt = System.currentTimeMillis();
+
+        LoadedSession(RaceSession session) {
+            this.session = session;
+        }
+
+        boolean isExpired() {
+            int season = session.getSessionInfo().getSeason();
+            return season >= Year.now().getValue()
+                && System.currentTimeMillis() - loadedAt > CURRENT_SEASON_TTL_MILLIS;
+        }
+    }
+}
@@ -7,13 +7,20 @@ public class RaceInfo {
     private final String countryName;
     private final String date;
     private final int sessionKey;
+    private final String endTime;
     
     public RaceInfo(int round, String circuitName, String countryName, String date, int sessionKey) {
+        this(round, circuitName, countryName, date, sessionKey, null);
+    }
+    
+    public RaceInfo(int round, String circuitName, String countryName, String date, int sessionKey, 
+            String endTime) {
         this.round = round;
         this.circuitName = circuitName;
         this.countryName = countryName;
         this.date = date;
         this.sessionKey = sessionKey;
+        this.endTime = endTime;
     }
     
     public int getRound() {
@@ -36,6 +43,13 @@ public class RaceInfo {
         return sessionKey;
     }
     
+    /**
+     * @return Session end as an ISO-8601 timestamp, or null if unknown
+     */
+    public String getEndTime() {
+        return endTime;
+    }
+    
     @Override
     public String toString() {
         return String.format("Round %d: %s (%s) - %s", round, circuitName, countryName, date);
@@ -0,0 +1,113 @@
+import java.util.*;
+
+/**
+ * Model class for a fully loaded race
+ * Holds every driver's lap data and answers sector lookups from memory
+ */
+public class RaceSession {
+    private final SessionInfo sessionInfo;
+    private final int sessionKey;
+    private final List<DriverLapData> drivers;
+    private final DriverLapData[] driverIndex; // Indexed by driver number
+    private final DriverRoster roster;
+    
+    public RaceSession(SessionInfo sessionInfo, int sessionKey, List<DriverLapData> drivers) {
+        this(sessionInfo, sessionKey, drivers, DriverRoster.empty());
+    }
+    
+    /**
+     * Creates a session and names every driver from the roster
+     */
+    public RaceSession(SessionInfo sessionInfo, int sessionKey, List<DriverLapData> drivers, 
+            DriverRoster roster) {
+        this.sessionInfo = sessionInfo;
+        this.sessionKey = sessionKey;
+        this.drivers = Collections.unmodifiableList(new ArrayList<>(drivers));
+        this.roster = roster;
+        
+        int maxNumber = 0;
+        for (DriverLapData driver : drivers) {
+            maxNumber = Math.max(maxNumber, driver.getDriverNumber());
+        }
+        this.driverIndex = new DriverLapData[maxNumber + 1];
+        for (DriverLapData driver : drivers) {
+            driverIndex[driver.getDriverNumber()] = driver;
+            driver.setDriverName(roster.getName(driver.getDriverNumber()));
+        }
+    }
+    
+    public SessionInfo getSessionInfo() {
+        return sessionInfo;
+    }
+    
+    public int getSessionKey() {
+        return sessionKey;
+    }
+    
+    /**
+     * @return Drivers sorted by finishing position
+     */
+    public List<DriverLapData> getDrivers() {
+        return drivers;
+    }
+    
+    /**
+     * @return The driver's lap data, or null if the driver did not set a lap
+     */
+    public DriverLapData getDriver(int driverNumber) {
+        if (driverNumber < 0 || driverNumber >= driverIndex.length) {
+            return null;
+        }
+        return driverIndex[driverNumber];
+    }
+    
+    public DriverRoster getRoster() {
+        return roster;
+    }
+    
+    /**
+     * Gets the sector times of a driver's fastest fully timed lap
+     * 
+     * @return SectorTimes, or null if not available
+     */
+    public SectorTimes getSectorTimes(int driverNumber) {
+        DriverLapData driver = getDriver(driverNumber);
+        return driver == null ? null : driver.getFastestLapSectors();
+    }
+    
+    /**
+     * Gets fastest-lap sector times for several drivers
+     * 
+     * @param driverNumbers Driver numbers to look up
+     * @return Map of driver number to sector times (drivers without data are omitted)
+     */
+    public Map<Integer, SectorTimes> getSectorTimes(List<Integer> driverNumbers) {
+        Map<Integer, SectorTimes> sectorTimesMap = new HashMap<>();
+        for (int driverNumber : driverNumbers) {
+            SectorTimes sectors = getSectorTimes(driverNumber);
+            if (sectors != null) {
+                sectorTimesMap.put(driverNumber, sectors);
+            }
+        }
+        return sectorTimesMap;
+    }
+    
+    /**
+     * Gets fastest-lap sector times for every driver in the session
+     */
+    public Map<Integer, SectorTimes> getAllSectorTimes() {
+        Map<Integer, SectorTimes> sectorTimesMap = new LinkedHashMap<>();
+        for (DriverLapData driver : drivers) {
+            SectorTimes sectors = driver.getFastestLapSectors();
+            if (sectors != null) {
+                sectorTimesMap.put(driver.getDriverNumber(), sectors);
+            }
+        }
+        return sectorTimesMap;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s (session %d, %d drivers)", sessionInfo, sessionKey, drivers.size());
+    }
+}
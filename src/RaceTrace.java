@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Lap-by-lap race time of every driver and the gaps between them.
+ * Race times are kept in one dense array indexed by lap and driver, so
+ * computing the gaps of the whole field for every lap is a tight loop over
+ * primitives.
+ *
+ * The race time at the end of a lap is taken from the start of the next lap
+ * when lap start times are known (they come from timing, so pit stops and
+ * untimed laps are included), otherwise from the lap start plus its duration,
+ * and otherwise from the sum of the lap durations.
+ */
+public class RaceTrace {
+    private final List<DriverLapData> drivers;
+    private final int driverCount;
+    private final int lapCount;
+
+    // Seconds since the race start at the end of each lap, [(lap - 1) * driverCount + driver]
+    private final double[] raceTimes;
+    private final double[] leaderTimes;
+
+    private RaceTrace(List<DriverLapData> drivers, int lapCount) {
+        this.drivers = drivers;
+        this.driverCount = drivers.size();
+        this.lapCount = lapCount;
+        this.raceTimes = new double[lapCount * driverCount];
+        this.leaderTimes = new double[lapCount];
+    }
+
+    /**
+     * Builds the trace of a race
+     *
+     * @param session Loaded race; drivers keep the order of the session
+     */
+    public static RaceTrace of(RaceSession session) {
+        List<DriverLapData> drivers = session.getDrivers();
+
+        int lapCount = 0;
+        long raceStart = Long.MAX_VALUE;
+        for (DriverLapData driver : drivers) {
+            for (int i = 0; i < driver.getRecordedLapCount(); i++) {
+                lapCount = Math.max(lapCount, driver.getLapNumber(i));
+                if (driver.getLapNumber(i) == 1 && driver.getLapStartMillis(i) != DriverLapData.NO_START_TIME) {
+                    raceStart = Math.min(raceStart, driver.getLapStartMillis(i));
+                }
+            }
+        }
+
+        RaceTrace trace = new RaceTrace(drivers, lapCount);
+        Arrays.fill(trace.raceTimes, Double.NaN);
+        int[] lapIndex = new int[lapCount + 2];
+        for (int d = 0; d < drivers.size(); d++) {
+            trace.fillDriver(d, drivers.get(d), lapIndex, raceStart == Long.MAX_VALUE ? -1 : raceStart);
+        }
+        trace.computeLeaderTimes();
+        return trace;
+    }
+
+    public List<DriverLapData> getDrivers() {
+        return drivers;
+    }
+
+    /**
+     * @return Number of laps of the race (the highest lap number recorded)
+     */
+    public int getLapCount() {
+        return lapCount;
+    }
+
+    /**
+     * @param driver Index in getDrivers()
+     * @param lap Lap number, starting at 1
+     * @return Seconds since the start at the end of the lap, or NaN if unknown
+     */
+    public double getRaceTime(int driver, int lap) {
+        return raceTimes[(lap - 1) * driverCount + driver];
+    }
+
+    /**
+     * @return Seconds behind the first driver to complete the lap, or NaN
+     */
+    public double getGapToLeader(int driver, int lap) {
+        return getRaceTime(driver, lap) - leaderTimes[lap - 1];
+    }
+
+    /**
+     * @return Seconds driver a is behind driver b at the end of the lap (negative if ahead), or NaN
+     */
+    public double getGap(int a, int b, int lap) {
+        int row = (lap - 1) * driverCount;
+        return raceTimes[row + a] - raceTimes[row + b];
+    }
+
+    /**
+     * Computes the gap of every driver to every other driver at the end of a lap
+     *
+     * @return Gaps as [a * driverCount + b], the same as getGap(a, b, lap)
+     */
+    public double[] getGapMatrix(int lap) {
+        double[] gaps = new double[driverCount * driverCount];
+        fillGapMatrix(lap, gaps, 0);
+        return gaps;
+    }
+
+    /**
+     * Computes the full gap matrix of every lap
+     *
+     * @return Gaps as [((lap - 1) * driverCount + a) * driverCount + b]
+     */
+    public double[] getAllGaps() {
+        double[] gaps = new double[lapCount * driverCount * driverCount];
+        for (int lap = 1; lap <= lapCount; lap++) {
+            fillGapMatrix(lap, gaps, (lap - 1) * driverCount * driverCount);
+        }
+        return gaps;
+    }
+
+    /**
+     * Orders the drivers by race time at the end of a lap; drivers without a time come last
+     *
+     * @return Indexes in getDrivers()
+     */
+    public int[] getOrder(int lap) {
+        int row = (lap - 1) * driverCount;
+        Integer[] order = new Integer[driverCount];
+        for (int d = 0; d < driverCount; d++) {
+            order[d] = d;
+        }
+        // Double.compare sorts NaN after every number
+        Arrays.sort(order, (a, b) -> Double.compare(raceTimes[row + a], raceTimes[row + b]));
+
+        int[] result = new int[driverCount];
+        for (int i = 0; i < driverCount; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    /**
+     * Writes one row per driver and lap with the race time and gap to the leader,
+     * the long format that plotting tools expect
+     */
+    public void write(TableRenderer table) throws IOException {
+        table.column("Lap", 5).column("No.", 5).column("Driver", 25)
+            .column("Race Time", 12).column("Gap", 10).writeHeader();
+        for (int lap = 1; lap <= lapCount; lap++) {
+            for (int d = 0; d < driverCount; d++) {
+                if (Double.isNaN(getRaceTime(d, lap))) {
+                    continue;
+                }
+                DriverLapData driver = drivers.get(d);
+                table.cell(lap)
+                    .cell(driver.getDriverNumber())
+                    .cell(driver.getDriverName())
+                    .seconds(getRaceTime(d, lap))
+                    .seconds(getGapToLeader(d, lap))
+                    .endRow();
+            }
+        }
+        table.endTable();
+    }
+
+    private void fillGapMatrix(int lap, double[] gaps, int offset) {
+        int row = (lap - 1) * driverCount;
+        for (int a = 0; a < driverCount; a++) {
+            double timeA = raceTimes[row + a];
+            int out = offset + a * driverCount;
+            for (int b = 0; b < driverCount; b++) {
+                gaps[out + b] = timeA - raceTimes[row + b];
+            }
+        }
+    }
+
+    /**
+     * Fills the race times of one driver
+     *
+     * @param lapIndex Scratch array mapping lap number to recorded lap index
+     * @param raceStart Earliest lap 1 start, or -1 if start times are unknown
+     */
+    private void fillDriver(int d, DriverLapData driver, int[] lapIndex, long raceStart) {
+        Arrays.fill(lapIndex, -1);
+        for (int i = 0; i < driver.getRecordedLapCount(); i++) {
+            if (driver.getLapNumber(i) >= 1) {
+                lapIndex[driver.getLapNumber(i)] = i;
+            }
+        }
+
+        double previousEnd = 0.0; // The race starts at zero
+        for (int lap = 1; lap <= lapCount; lap++) {
+            int index = lapIndex[lap];
+            if (index < 0) {
+                break; // Retired, or a gap in the data
+            }
+
+            double duration = driver.getLapTime(index);
+            double end = Double.NaN;
+            if (raceStart >= 0) {
+                int next = lapIndex[lap + 1];
+                long start = driver.getLapStartMillis(index);
+                if (next >= 0 && driver.getLapStartMillis(next) != DriverLapData.NO_START_TIME) {
+                    end = (driver.getLapStartMillis(next) - raceStart) / 1000.0;
+                } else if (start != DriverLapData.NO_START_TIME && !Double.isNaN(duration)) {
+                    end = (start - raceStart) / 1000.0 + duration;
+                }
+            }
+            if (Double.isNaN(end)) {
+                end = previousEnd + duration; // NaN if either is unknown
+            }
+
+            raceTimes[(lap - 1) * driverCount + d] = end;
+            previousEnd = end;
+        }
+    }
+
+    private void computeLeaderTimes() {
+        for (int lap = 0; lap < lapCount; lap++) {
+            double leader = Double.NaN;
+            int row = lap * driverCount;
+            for (int d = 0; d < driverCount; d++) {
+                double time = raceTimes[row + d];
+                if (!Double.isNaN(time) && !(time >= leader)) {
+                    leader = time;
+                }
+            }
+            leaderTimes[lap] = leader;
+        }
+    }
+}
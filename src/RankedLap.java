@@ -0,0 +1,38 @@
+/**
+ * Model class for one lap in a ranking of lap times
+ */
+public class RankedLap {
+    private final SessionInfo sessionInfo;
+    private final DriverLapData driver;
+    private final int lapNumber;
+    private final double lapTime;
+    
+    public RankedLap(SessionInfo sessionInfo, DriverLapData driver, int lapNumber, double lapTime) {
+        this.sessionInfo = sessionInfo;
+        this.driver = driver;
+        this.lapNumber = lapNumber;
+        this.lapTime = lapTime;
+    }
+    
+    public SessionInfo getSessionInfo() {
+        return sessionInfo;
+    }
+    
+    public DriverLapData getDriver() {
+        return driver;
+    }
+    
+    public int getLapNumber() {
+        return lapNumber;
+    }
+    
+    public double getLapTime() {
+        return lapTime;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s - %s (Lap %d, %s)", driver.getDriverName(), 
+            Formatter.formatLapTime(lapTime), lapNumber, sessionInfo);
+    }
+}
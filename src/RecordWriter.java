@@ -0,0 +1,213 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes flat records to a CSV or NDJSON file, optionally gzip-compressed.
+ * Each record is assembled in one reusable buffer and appended to a buffered
+ * writer, so memory use does not depend on how many records are written.
+ * Missing values (NaN, null) are written as empty CSV fields or JSON nulls.
+ *
+ *   writer.value(2024).value("Max Verstappen").value(92.345).endRecord();
+ */
+public class RecordWriter implements Closeable {
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * @param name csv or ndjson (case-insensitive)
+         */
+        public static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export format: " + name + " (expected csv or ndjson)");
+            }
+        }
+
+        public String extension() {
+            return this == CSV ? ".csv" : ".ndjson";
+        }
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final String[] fields;
+    private final StringBuilder record = new StringBuilder(256);
+    private int field = 0;
+    private long records = 0;
+
+    public RecordWriter(Writer out, Format format, String... fields) throws IOException {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 64 * 1024);
+        this.format = format;
+        this.fields = fields;
+        if (format == Format.CSV) {
+            this.out.write(String.join(",", fields));
+            this.out.write('\n');
+        }
+    }
+
+    /**
+     * Creates a writer for a file named after the dataset, e.g. laps.csv.gz
+     *
+     * @param directory Directory to write into; created if missing
+     * @param name Dataset name
+     * @param gzip Whether to compress the file
+     */
+    public static RecordWriter open(Path directory, String name, Format format, boolean gzip, String... fields)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + format.extension() + (gzip ? ".gz" : ""));
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, 64 * 1024);
+        }
+        return new RecordWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), format, fields);
+    }
+
+    public RecordWriter value(int value) {
+        startField();
+        record.append(value);
+        return this;
+    }
+
+    public RecordWriter value(long value) {
+        startField();
+        record.append(value);
+        return this;
+    }
+
+    public RecordWriter value(boolean value) {
+        startField();
+        record.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a number, or a missing value for NaN and infinity
+     */
+    public RecordWriter value(double value) {
+        startField();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            appendMissing();
+        } else {
+            record.append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a string, or a missing value for null
+     */
+    public RecordWriter value(String value) {
+        startField();
+        if (value == null) {
+            appendMissing();
+        } else if (format == Format.CSV) {
+            appendCsv(value);
+        } else {
+            appendJson(value);
+        }
+        return this;
+    }
+
+    /**
+     * Finishes the current record and hands it to the writer
+     */
+    public void endRecord() throws IOException {
+        if (field != fields.length) {
+            throw new IllegalStateException("Record has " + field + " values but " + fields.length + " fields");
+        }
+        if (format == Format.NDJSON) {
+            record.append('}');
+        }
+        record.append('\n');
+        out.append(record);
+        record.setLength(0);
+        field = 0;
+        records++;
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void startField() {
+        if (field >= fields.length) {
+            throw new IllegalStateException("Record has more values than its " + fields.length + " fields");
+        }
+        if (format == Format.CSV) {
+            if (field > 0) {
+                record.append(',');
+            }
+        } else {
+            record.append(field == 0 ? "{\"" : ",\"").append(fields[field]).append("\":");
+        }
+        field++;
+    }
+
+    private void appendMissing() {
+        if (format == Format.NDJSON) {
+            record.append("null");
+        }
+    }
+
+    private void appendCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            record.append(value);
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                record.append('"');
+            }
+            record.append(c);
+        }
+        record.append('"');
+    }
+
+    private void appendJson(String value) {
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    record.append("\\\"");
+                    break;
+                case '\\':
+                    record.append("\\\\");
+                    break;
+                case '\n':
+                    record.append("\\n");
+                    break;
+                case '\r':
+                    record.append("\\r");
+                    break;
+                case '\t':
+                    record.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        record.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        record.append(c);
+                    }
+            }
+        }
+        record.append('"');
+    }
+}
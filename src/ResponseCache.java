@@ -0,0 +1,277 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent on-disk cache for raw API responses.
+ * Entries are gzip-compressed and stored under the SHA-256 of their URL.
+ * When the cache grows past its size limit the least recently used entries are evicted.
+ */
+public class ResponseCache {
+    public static final long TTL_FOREVER = Long.MAX_VALUE;
+
+    private static final String ENTRY_SUFFIX = ".json.gz";
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean offline;
+    private long currentBytes = -1; // Lazily computed on first write
+
+    public ResponseCache(Path directory, long maxBytes, boolean offline) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.offline = offline;
+    }
+
+    /**
+     * Creates a cache in the user's home directory with the default size limit
+     *
+     * @param offline If true, callers must be served from the cache only
+     * @return ResponseCache instance
+     */
+    public static ResponseCache defaultCache(boolean offline) {
+        Path dir = Paths.get(System.getProperty("user.home"), ".f1-laptime-cache");
+        return new ResponseCache(dir, DEFAULT_MAX_BYTES, offline);
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Looks up a cached response
+     *
+     * @param url Request URL used as the cache key
+     * @param ttlMillis Maximum age of the entry, or TTL_FOREVER
+     * @return Cached body, or null if missing or expired
+     */
+    public String get(String url, long ttlMillis) {
+        try (InputStream in = open(url, ttlMillis)) {
+            if (in == null) {
+                return null;
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // A corrupt entry is treated as a miss and overwritten on the next put
+            return null;
+        }
+    }
+
+    /**
+     * Opens a cached response for streaming
+     *
+     * @param url Request URL used as the cache key
+     * @param ttlMillis Maximum age of the entry, or TTL_FOREVER
+     * @return Stream positioned at the start of the body, or null if missing or expired
+     */
+    public InputStream open(String url, long ttlMillis) {
+        Path file = pathFor(url);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))));
+            long fetchedAt = in.readLong();
+            String storedUrl = in.readUTF();
+
+            // Guard against hash collisions and stale entries
+            if (!storedUrl.equals(url) || isExpired(fetchedAt, ttlMillis)) {
+                in.close();
+                return null;
+            }
+
+            // Touch the entry so LRU eviction keeps it around
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return in;
+        } catch (IOException e) {
+            closeQuietly(in);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response body, evicting old entries if the size limit is exceeded
+     *
+     * @param url Request URL used as the cache key
+     * @param body Response body
+     */
+    public void put(String url, String body) throws IOException {
+        EntryWriter writer = newEntry(url);
+        try {
+            writer.body().write(body.getBytes(StandardCharsets.UTF_8));
+            writer.commit();
+        } finally {
+            writer.abort();
+        }
+    }
+
+    /**
+     * Starts writing a new entry. The body is streamed into a temporary file
+     * and only becomes visible once commit() is called.
+     *
+     * @param url Request URL used as the cache key
+     * @return Writer for the entry body
+     */
+    public EntryWriter newEntry(String url) throws IOException {
+        Files.createDirectories(directory);
+        return new EntryWriter(url, Files.createTempFile(directory, "entry", ".tmp"));
+    }
+
+    /**
+     * Body of a cache entry that is being written
+     */
+    public class EntryWriter {
+        private final String url;
+        private final Path temp;
+        private final DataOutputStream out;
+        private boolean finished = false;
+
+        private EntryWriter(String url, Path temp) throws IOException {
+            this.url = url;
+            this.temp = temp;
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))));
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF(url);
+        }
+
+        public OutputStream body() {
+            return out;
+        }
+
+        /**
+         * Publishes the entry under its URL
+         */
+        public void commit() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            out.close();
+            install(url, temp);
+        }
+
+        /**
+         * Discards the entry if it has not been committed
+         */
+        public void abort() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            closeQuietly(out);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // Leftover temp files are harmless and never read
+            }
+        }
+    }
+
+    private synchronized void install(String url, Path temp) throws IOException {
+        Path file = pathFor(url);
+        long previousSize = Files.exists(file) ? Files.size(file) : 0;
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (currentBytes < 0) {
+            currentBytes = computeDirectorySize();
+        } else {
+            currentBytes += Files.size(file) - previousSize;
+        }
+
+        if (currentBytes > maxBytes) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing useful to do
+        }
+    }
+
+    private boolean isExpired(long fetchedAt, long ttlMillis) {
+        if (ttlMillis == TTL_FOREVER) {
+            return false;
+        }
+        return System.currentTimeMillis() - fetchedAt > ttlMillis;
+    }
+
+    /**
+     * Deletes the oldest entries until the cache is back under 90% of its limit
+     */
+    private void evictLeastRecentlyUsed() throws IOException {
+        List<Path> entries = listEntries();
+        entries.sort(Comparator.comparingLong(this::lastModifiedMillis));
+
+        long target = maxBytes * 9 / 10;
+        for (Path entry : entries) {
+            if (currentBytes <= target) {
+                break;
+            }
+            long size = Files.size(entry);
+            if (Files.deleteIfExists(entry)) {
+                currentBytes -= size;
+            }
+        }
+    }
+
+    private long computeDirectorySize() throws IOException {
+        long total = 0;
+        for (Path entry : listEntries()) {
+            total += Files.size(entry);
+        }
+        return total;
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> entries = new ArrayList<>();
+            files.filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                .forEach(entries::add);
+            return entries;
+        }
+    }
+
+    private long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Maps a URL to its content-addressed file name
+     */
+    private Path pathFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return directory.resolve(hex + ENTRY_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.*;
+
+/**
+ * Mergeable season-level results: the fastest lap at every circuit and each
+ * driver's pace and consistency across rounds. One aggregate is built per
+ * round and the aggregates are merged in any order, so rounds can be reduced
+ * in parallel. Merging adds into one aggregate instead of building a new one,
+ * so a reduction over a season does not copy the results at every step.
+ *
+ * Lap times of different circuits cannot be compared directly, so pace is
+ * measured per round as the gap of a driver's clean-air pace to the best
+ * clean-air pace of that round, and consistency as the spread between the
+ * 10th and 90th percentile lap relative to the driver's median.
+ */
+public class SeasonAggregate {
+    private final Map<Integer, CircuitRecord> fastestLaps = new TreeMap<>(); // By round
+    private final Map<Integer, DriverSeason> drivers = new HashMap<>();      // By driver number
+    private final Map<Integer, String> failures = new TreeMap<>();           // Round -> error
+
+    /**
+     * @return Aggregate without any rounds, to merge rounds into
+     */
+    public static SeasonAggregate empty() {
+        return new SeasonAggregate();
+    }
+
+    /**
+     * Builds the aggregate of one round
+     *
+     * @param race Race the lap data belongs to
+     * @param lapData Drivers of the race
+     */
+    public static SeasonAggregate ofRound(RaceInfo race, List<DriverLapData> lapData) {
+        SeasonAggregate aggregate = new SeasonAggregate();
+
+        // Statistics of every driver first, the round's best pace is needed for the deficits
+        Map<DriverLapData, LapStatistics> statistics = new LinkedHashMap<>();
+        double bestPace = Double.NaN;
+        DriverLapData fastestDriver = null;
+        for (DriverLapData driver : lapData) {
+            LapStatistics stats = LapStatistics.of(driver);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            statistics.put(driver, stats);
+            double pace = stats.getCleanAirPace();
+            if (!Double.isNaN(pace) && !(pace >= bestPace)) {
+                bestPace = pace;
+            }
+            if (fastestDriver == null || driver.getFastestLapTime() < fastestDriver.getFastestLapTime()) {
+                fastestDriver = driver;
+            }
+        }
+
+        if (fastestDriver != null) {
+            aggregate.fastestLaps.put(race.getRound(), new CircuitRecord(race, fastestDriver.getDriverName(),
+                fastestDriver.getFastestLapTime(), fastestDriver.getFastestLapNumber()));
+        }
+
+        for (Map.Entry<DriverLapData, LapStatistics> entry : statistics.entrySet()) {
+            DriverLapData driver = entry.getKey();
+            LapStatistics stats = entry.getValue();
+            DriverSeason season = new DriverSeason(driver.getDriverNumber(), driver.getDriverName());
+            season.addRound(stats, bestPace);
+            aggregate.drivers.put(driver.getDriverNumber(), season);
+        }
+        return aggregate;
+    }
+
+    /**
+     * Builds the aggregate of a round that could not be loaded
+     */
+    public static SeasonAggregate failedRound(RaceInfo race, String error) {
+        SeasonAggregate aggregate = new SeasonAggregate();
+        aggregate.failures.put(race.getRound(), error);
+        return aggregate;
+    }
+
+    /**
+     * Adds the rounds of another aggregate to this one. The other aggregate
+     * hands over its driver results and must not be used afterwards.
+     */
+    public void merge(SeasonAggregate other) {
+        fastestLaps.putAll(other.fastestLaps);
+        failures.putAll(other.failures);
+        for (DriverSeason driver : other.drivers.values()) {
+            drivers.merge(driver.getDriverNumber(), driver, DriverSeason::merge);
+        }
+    }
+
+    /**
+     * @return Fastest lap of every loaded round, in round order
+     */
+    public List<CircuitRecord> getFastestLaps() {
+        return new ArrayList<>(fastestLaps.values());
+    }
+
+    /**
+     * @return Drivers ordered by their average deficit to the best pace (fastest first)
+     */
+    public List<DriverSeason> getPaceRanking() {
+        List<DriverSeason> ranking = new ArrayList<>(drivers.values());
+        ranking.sort(Comparator.comparingDouble(DriverSeason::getAveragePaceDeficit));
+        return ranking;
+    }
+
+    /**
+     * @return Drivers ordered by their average lap time spread (most consistent first)
+     */
+    public List<DriverSeason> getConsistencyRanking() {
+        List<DriverSeason> ranking = new ArrayList<>(drivers.values());
+        ranking.sort(Comparator.comparingDouble(DriverSeason::getAverageSpread));
+        return ranking;
+    }
+
+    /**
+     * @return Error message of every round that could not be loaded, by round
+     */
+    public Map<Integer, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Fastest lap set at one circuit
+     */
+    public static class CircuitRecord {
+        private final RaceInfo race;
+        private final String driverName;
+        private final double lapTime;
+        private final int lapNumber;
+
+        CircuitRecord(RaceInfo race, String driverName, double lapTime, int lapNumber) {
+            this.race = race;
+            this.driverName = driverName;
+            this.lapTime = lapTime;
+            this.lapNumber = lapNumber;
+        }
+
+        public RaceInfo getRace() {
+            return race;
+        }
+
+        public String getDriverName() {
+            return driverName;
+        }
+
+        public double getLapTime() {
+            return lapTime;
+        }
+
+        public int getLapNumber() {
+            return lapNumber;
+        }
+    }
+
+    /**
+     * One driver's results over the rounds merged so far
+     */
+    public static class DriverSeason {
+        private final int driverNumber;
+        private final String driverName;
+        private final LapStatistics laps = new LapStatistics();
+        private int rounds = 0;
+        private int pacedRounds = 0;
+        private double paceDeficitSum = 0.0;
+        private int spreadRounds = 0;
+        private double spreadSum = 0.0;
+
+        DriverSeason(int driverNumber, String driverName) {
+            this.driverNumber = driverNumber;
+            this.driverName = driverName;
+        }
+
+        void addRound(LapStatistics stats, double bestPace) {
+            laps.merge(stats);
+            rounds++;
+
+            double pace = stats.getCleanAirPace();
+            if (!Double.isNaN(pace) && !Double.isNaN(bestPace)) {
+                paceDeficitSum += (pace / bestPace - 1) * 100;
+                pacedRounds++;
+            }
+
+            double median = stats.getMedian();
+            if (stats.getCount() >= 2 && median > 0) {
+                spreadSum += (stats.getPercentile(90) - stats.getPercentile(10)) / median * 100;
+                spreadRounds++;
+            }
+        }
+
+        static DriverSeason merge(DriverSeason target, DriverSeason other) {
+            target.laps.merge(other.laps);
+            target.rounds += other.rounds;
+            target.pacedRounds += other.pacedRounds;
+            target.paceDeficitSum += other.paceDeficitSum;
+            target.spreadRounds += other.spreadRounds;
+            target.spreadSum += other.spreadSum;
+            return target;
+        }
+
+        public int getDriverNumber() {
+            return driverNumber;
+        }
+
+        public String getDriverName() {
+            return driverName;
+        }
+
+        public int getRounds() {
+            return rounds;
+        }
+
+        /**
+         * @return All timed laps of the driver over the merged rounds
+         */
+        public LapStatistics getLaps() {
+            return laps;
+        }
+
+        /**
+         * @return Average percentage by which the driver's clean-air pace was slower than
+         *         the best of each round, or infinity if no round had a pace
+         */
+        public double getAveragePaceDeficit() {
+            return pacedRounds == 0 ? Double.POSITIVE_INFINITY : paceDeficitSum / pacedRounds;
+        }
+
+        /**
+         * @return Average p10-p90 lap time spread as a percentage of the median,
+         *         or infinity if no round had enough laps
+         */
+        public double getAverageSpread() {
+            return spreadRounds == 0 ? Double.POSITIVE_INFINITY : spreadSum / spreadRounds;
+        }
+    }
+}
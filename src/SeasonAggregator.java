@@ -0,0 +1,55 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Answers season-level questions by loading every round and collecting the
+ * per-round aggregates with a parallel stream. The stream runs in its own
+ * ForkJoinPool, so the number of rounds processed at once follows the
+ * requested parallelism instead of the shared common pool.
+ */
+public class SeasonAggregator {
+    private final F1ApiService apiService;
+    private final int parallelism;
+
+    public SeasonAggregator(F1ApiService apiService, int parallelism) {
+        this.apiService = apiService;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Loads and aggregates the rounds of a season
+     *
+     * @param season Year of the season
+     * @param rounds Rounds to include, or empty for all rounds
+     * @return Aggregate of every round; rounds that failed are listed in getFailures()
+     */
+    public SeasonAggregate aggregate(int season, List<Integer> rounds) throws Exception {
+        List<RaceInfo> races = new ArrayList<>();
+        for (RaceInfo race : apiService.fetchRaces(season)) {
+            if (rounds.isEmpty() || rounds.contains(race.getRound())) {
+                races.add(race);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> races.parallelStream()
+                .map(race -> loadRound(season, race))
+                .collect(SeasonAggregate::empty, SeasonAggregate::merge, SeasonAggregate::merge)).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new Exception(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private SeasonAggregate loadRound(int season, RaceInfo race) {
+        try {
+            return SeasonAggregate.ofRound(race, apiService.fetchLapData(season, race.getRound()));
+        } catch (Exception e) {
+            // One missing round should not lose the rest of the season
+            return SeasonAggregate.failedRound(race, e.getMessage());
+        }
+    }
+}
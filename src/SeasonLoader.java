@@ -0,0 +1,103 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Loads the races of one or more seasons concurrently for the headless modes.
+ * Every selected race is submitted at once to a pool of the requested size,
+ * and the races are handed back in calendar order, so a caller can report on
+ * the first race while later ones are still loading. A race that fails is
+ * reported and skipped; the others are not affected.
+ */
+public class SeasonLoader implements AutoCloseable {
+    private final F1ApiService apiService;
+    private final ExecutorService executor;
+
+    public SeasonLoader(F1ApiService apiService, int concurrency) {
+        this.apiService = apiService;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    }
+
+    /**
+     * Starts loading the selected races
+     *
+     * @param seasons Seasons to load
+     * @param rounds Rounds to load in every season, or empty for all rounds
+     * @return Races in calendar order, each still loading
+     */
+    public List<PendingRace> start(List<Integer> seasons, List<Integer> rounds) throws Exception {
+        List<PendingRace> pending = new ArrayList<>();
+        for (int season : seasons) {
+            for (RaceInfo race : apiService.fetchRaces(season)) {
+                if (rounds.isEmpty() || rounds.contains(race.getRound())) {
+                    pending.add(new PendingRace(new SessionInfo(season, race.getRound()), race,
+                        executor.submit(() -> apiService.fetchSession(season, race.getRound()))));
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Loads the selected races and waits for all of them
+     *
+     * @return Races that could be loaded, in calendar order
+     */
+    public List<RaceSession> loadAll(List<Integer> seasons, List<Integer> rounds) throws Exception {
+        List<RaceSession> sessions = new ArrayList<>();
+        for (PendingRace race : start(seasons, rounds)) {
+            try {
+                sessions.add(race.await());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // Already reported, the remaining races are still useful
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Stops loading races that have not finished
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A race whose session is being loaded
+     */
+    public static class PendingRace {
+        private final SessionInfo sessionInfo;
+        private final RaceInfo race;
+        private final Future<RaceSession> session;
+
+        PendingRace(SessionInfo sessionInfo, RaceInfo race, Future<RaceSession> session) {
+            this.sessionInfo = sessionInfo;
+            this.race = race;
+            this.session = session;
+        }
+
+        public SessionInfo getSessionInfo() {
+            return sessionInfo;
+        }
+
+        public RaceInfo getRace() {
+            return race;
+        }
+
+        /**
+         * Waits for the race to load. A failure is reported on standard error
+         * and rethrown with its original exception.
+         */
+        public RaceSession await() throws Exception {
+            try {
+                return session.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                System.err.printf("Failed to load %s: %s%n", sessionInfo, cause.getMessage());
+                throw cause instanceof Exception ? (Exception) cause : new Exception(cause);
+            }
+        }
+    }
+}
@@ -18,6 +18,23 @@ public class SessionInfo {
         return round;
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionInfo)) {
+            return false;
+        }
+        SessionInfo other = (SessionInfo) o;
+        return season == other.season && round == other.round;
+    }
+    
+    @Override
+    public int hashCode() {
+        return season * 100 + round;
+    }
+    
     @Override
     public String toString() {
         return String.format("Season %d, Round %d", season, round);
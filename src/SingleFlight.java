@@ -0,0 +1,93 @@
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Table of calls in flight, so concurrent callers with the same key share one call.
+ * The first caller for a key runs the task on its own thread; callers that arrive
+ * while it is running wait for and receive the same result or exception. Once the
+ * call has finished the key is free again, so results are not memoized.
+ *
+ * Cancellation is per caller: an interrupted waiter stops waiting without
+ * affecting the others, and if the running caller is interrupted the waiters
+ * do not inherit the interruption but start the call again themselves.
+ */
+public class SingleFlight<K> {
+    private final Map<K, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Runs a task unless one with the same key is already running
+     *
+     * @param key Identity of the call; every task for a key must produce the same type
+     * @param task Work to run if no call for the key is in flight
+     * @return Result of this or the shared call
+     */
+    public <T> T execute(K key, Callable<T> task) throws Exception {
+        return execute(key, task, null);
+    }
+
+    /**
+     * Runs a task unless one with the same key is already running
+     *
+     * @param key Identity of the call; every task for a key must produce the same type
+     * @param task Work to run if no call for the key is in flight
+     * @param onShared Called when this caller joins a call in flight instead of running the task, may be null
+     * @return Result of this or the shared call
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key, Callable<T> task, Runnable onShared) throws Exception {
+        while (true) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> running = calls.putIfAbsent(key, call);
+            if (running == null) {
+                return run(key, call, task);
+            }
+
+            if (onShared != null) {
+                onShared.run();
+            }
+            try {
+                return (T) running.get();
+            } catch (CancellationException e) {
+                // The caller running it was interrupted, try again
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+    }
+
+    /**
+     * @return Number of calls currently in flight
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    private <T> T run(K key, CompletableFuture<Object> call, Callable<T> task) throws Exception {
+        try {
+            T result = task.call();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            if (isInterruption(e)) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private static boolean isInterruption(Throwable e) {
+        return e instanceof InterruptedException
+            || e instanceof InterruptedIOException
+            || e instanceof CancellationException
+            || Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes tables as aligned console text, CSV or Markdown.
+ * Every row is assembled in one reusable buffer and written through a single
+ * buffered writer, so large reports need neither String.format nor a String
+ * per cell. Typical use:
+ *
+ *   table.column("Pos", 5).column("Driver", 25).column("Best Lap", 12).writeHeader();
+ *   table.cell(1).cell("Max Verstappen").lapTime(92.345).endRow();
+ *   table.endTable();
+ */
+public class TableRenderer implements Flushable, Closeable {
+    public enum Format {
+        CONSOLE, CSV, MARKDOWN;
+
+        /**
+         * @param name console, csv or markdown (case-insensitive)
+         */
+        public static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format: " + name + " (expected console, csv or markdown)");
+            }
+        }
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final boolean closeOutput;
+
+    private final List<String> headers = new ArrayList<>();
+    private int[] widths = new int[8];
+
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder cell = new StringBuilder(32);
+    private char[] chars = new char[256];
+    private int column = 0;
+
+    public TableRenderer(Writer out, Format format) {
+        this(out, format, true);
+    }
+
+    private TableRenderer(Writer out, Format format, boolean closeOutput) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 16 * 1024);
+        this.format = format;
+        this.closeOutput = closeOutput;
+    }
+
+    /**
+     * Creates a renderer for aligned text on standard output
+     */
+    public static TableRenderer console() {
+        return new TableRenderer(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), Format.CONSOLE, false);
+    }
+
+    /**
+     * Creates a renderer for a report file or standard output
+     *
+     * @param output File to write, or null for standard output (which close() only flushes)
+     */
+    public static TableRenderer open(Path output, Format format) throws IOException {
+        if (output == null) {
+            return new TableRenderer(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), format, false);
+        }
+        return new TableRenderer(Files.newBufferedWriter(output, StandardCharsets.UTF_8), format, true);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes a section heading before a table
+     */
+    public TableRenderer section(String title) throws IOException {
+        switch (format) {
+            case CSV:
+                out.write("\n# ");
+                out.write(title);
+                out.write('\n');
+                break;
+            case MARKDOWN:
+                out.write("\n### ");
+                out.write(title);
+                out.write("\n\n");
+                break;
+            default:
+                out.write("\n=== ");
+                out.write(title);
+                out.write(" ===\n");
+        }
+        return this;
+    }
+
+    /**
+     * Writes a line of free text, e.g. an error in place of a table.
+     * In CSV it is written as a # comment so the tables stay parseable.
+     */
+    public TableRenderer text(String text) throws IOException {
+        if (format == Format.CSV) {
+            out.write("# ");
+        }
+        out.write(text);
+        out.write('\n');
+        return this;
+    }
+
+    /**
+     * Adds a column to the next table
+     *
+     * @param header Column heading
+     * @param width Minimum width in console output
+     */
+    public TableRenderer column(String header, int width) {
+        if (headers.size() == widths.length) {
+            widths = Arrays.copyOf(widths, widths.length * 2);
+        }
+        widths[headers.size()] = width;
+        headers.add(header);
+        return this;
+    }
+
+    /**
+     * Writes the heading row of the columns added so far
+     */
+    public TableRenderer writeHeader() throws IOException {
+        for (String header : headers) {
+            cell(header);
+        }
+        endRow();
+
+        if (format == Format.CONSOLE) {
+            int total = headers.size() - 1;
+            for (int i = 0; i < headers.size(); i++) {
+                total += widths[i];
+            }
+            appendRepeated('-', total);
+            line.append('\n');
+            writeLine();
+        } else if (format == Format.MARKDOWN) {
+            line.append('|');
+            for (int i = 0; i < headers.size(); i++) {
+                line.append(" --- |");
+            }
+            line.append('\n');
+            writeLine();
+        }
+        return this;
+    }
+
+    public TableRenderer cell(String value) {
+        cell.append(value);
+        return endCell();
+    }
+
+    public TableRenderer cell(int value) {
+        cell.append(value);
+        return endCell();
+    }
+
+    public TableRenderer cell(long value) {
+        cell.append(value);
+        return endCell();
+    }
+
+    public TableRenderer lapTime(double seconds) {
+        Formatter.appendLapTime(cell, seconds);
+        return endCell();
+    }
+
+    public TableRenderer sectorTime(double seconds) {
+        Formatter.appendSectorTime(cell, seconds);
+        return endCell();
+    }
+
+    /**
+     * Adds a plain number with three decimals, or an empty cell for NaN
+     */
+    public TableRenderer cell(double value) {
+        if (!Double.isNaN(value)) {
+            Formatter.appendSeconds(cell, value);
+        }
+        return endCell();
+    }
+
+    /**
+     * Adds a plain number of seconds, or an empty cell for NaN
+     */
+    public TableRenderer seconds(double seconds) {
+        return cell(seconds);
+    }
+
+    public TableRenderer difference(double seconds) {
+        Formatter.appendDifference(cell, seconds);
+        return endCell();
+    }
+
+    /**
+     * Finishes the current row and writes it
+     */
+    public TableRenderer endRow() throws IOException {
+        if (format == Format.MARKDOWN) {
+            line.append(" |");
+        }
+        line.append('\n');
+        writeLine();
+        column = 0;
+        return this;
+    }
+
+    /**
+     * Finishes the table, clearing its columns and flushing the output
+     */
+    public void endTable() throws IOException {
+        headers.clear();
+        flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes the output and closes it, unless it is standard output
+     */
+    @Override
+    public void close() throws IOException {
+        if (closeOutput) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    /**
+     * Moves the formatted cell into the row, escaping or padding it for the format
+     */
+    private TableRenderer endCell() {
+        switch (format) {
+            case CSV:
+                if (column > 0) {
+                    line.append(',');
+                }
+                appendCsv();
+                break;
+            case MARKDOWN:
+                line.append(column == 0 ? "| " : " | ");
+                for (int i = 0; i < cell.length(); i++) {
+                    char c = cell.charAt(i);
+                    if (c == '|') {
+                        line.append('\\');
+                    }
+                    line.append(c);
+                }
+                break;
+            default:
+                if (column > 0) {
+                    line.append(' ');
+                }
+                line.append(cell);
+                // The last column is not padded, trailing spaces add nothing
+                if (column < headers.size() - 1) {
+                    appendRepeated(' ', widths[column] - cell.length());
+                }
+        }
+        cell.setLength(0);
+        column++;
+        return this;
+    }
+
+    private void appendCsv() {
+        boolean quote = false;
+        for (int i = 0; i < cell.length() && !quote; i++) {
+            char c = cell.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(cell);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < cell.length(); i++) {
+            char c = cell.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendRepeated(char c, int count) {
+        for (int i = 0; i < count; i++) {
+            line.append(c);
+        }
+    }
+
+    private void writeLine() throws IOException {
+        // Writer.append(CharSequence) would copy the row into a new String
+        if (chars.length < line.length()) {
+            chars = new char[Math.max(line.length(), chars.length * 2)];
+        }
+        line.getChars(0, line.length(), chars, 0);
+        out.write(chars, 0, line.length());
+        line.setLength(0);
+    }
+}
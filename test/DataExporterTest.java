@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DataExporterTest {
+    private static final String[] RESULT_FIELDS = {
+        "season", "round", "session_key", "circuit", "date", "position", "driver_number", "driver_name",
+        "team_name", "laps", "fastest_lap_duration", "fastest_lap_number", "average_lap_duration"
+    };
+
+    @Test
+    void driverWithoutTimedLapHasNoFastestLap() throws Exception {
+        DriverLapData winner = new DriverLapData(1);
+        winner.addLapTime(92.1, 1);
+        winner.addLapTime(91.5, 2);
+        winner.setFinishingPosition(1);
+
+        // Retired on the first lap without a time
+        DriverLapData retired = new DriverLapData(2);
+        retired.addLap(1, Double.NaN, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);
+
+        RaceSession session = new RaceSession(new SessionInfo(2023, 1), 7, List.of(winner, retired));
+        RaceInfo race = new RaceInfo(1, "Sakhir", "Bahrain", "2023-03-05", 7);
+
+        StringWriter text = new StringWriter();
+        try (RecordWriter out = new RecordWriter(text, RecordWriter.Format.CSV, RESULT_FIELDS)) {
+            DataExporter.writeResults(out, session, race);
+        }
+
+        String[] rows = text.toString().split("\n");
+        assertEquals(3, rows.length);
+        assertTrue(rows[1].endsWith(",2,91.5,2,91.8"), rows[1]);
+        assertTrue(rows[2].endsWith(",0,,,"), rows[2]);
+    }
+}
@@ -0,0 +1,33 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class FinishingOrderLoaderTest {
+    private static FinishingOrder reduce(String json) throws Exception {
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(json))) {
+            return FinishingOrderLoader.reduce(reader);
+        }
+    }
+
+    @Test
+    void lastPositionOfEachDriverWins() throws Exception {
+        FinishingOrder order = reduce("["
+            + "{\"driver_number\":1,\"position\":2,\"date\":\"2023-03-05T16:00:00\"},"
+            + "{\"driver_number\":16,\"position\":1,\"date\":\"2023-03-05T16:00:00\"},"
+            + "{\"driver_number\":1,\"position\":1,\"date\":\"2023-03-05T16:40:00\"},"
+            + "{\"driver_number\":16,\"position\":2,\"date\":\"2023-03-05T16:40:00\"}]");
+        assertEquals(1, order.getPosition(1));
+        assertEquals(2, order.getPosition(16));
+    }
+
+    @Test
+    void rowWithoutPositionKeepsTheLastPosition() throws Exception {
+        FinishingOrder order = reduce("["
+            + "{\"driver_number\":1,\"position\":3,\"date\":\"2023-03-05T16:00:00\"},"
+            + "{\"driver_number\":1,\"position\":null,\"date\":\"2023-03-05T16:40:00\"},"
+            + "{\"driver_number\":44,\"date\":\"2023-03-05T16:40:00\"}]");
+        assertEquals(3, order.getPosition(1));
+        assertEquals(FinishingOrder.NOT_CLASSIFIED, order.getPosition(44));
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+class JdkHttpTransportTest {
+    private static final ZonedDateTime NOW = ZonedDateTime.of(2024, 3, 2, 15, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void retryAfterSeconds() {
+        assertEquals(OptionalLong.of(120_000), JdkHttpTransport.parseRetryAfter("120", NOW));
+        assertEquals(OptionalLong.of(0), JdkHttpTransport.parseRetryAfter(" 0 ", NOW));
+    }
+
+    @Test
+    void retryAfterHttpDate() {
+        assertEquals(OptionalLong.of(90_000),
+            JdkHttpTransport.parseRetryAfter("Sat, 2 Mar 2024 15:01:30 GMT", NOW));
+    }
+
+    @Test
+    void retryAfterDateInThePastIsNoDelay() {
+        assertEquals(OptionalLong.of(0), JdkHttpTransport.parseRetryAfter("Sat, 2 Mar 2024 14:00:00 GMT", NOW));
+    }
+
+    @Test
+    void missingOrInvalidRetryAfterIsEmpty() {
+        assertEquals(OptionalLong.empty(), JdkHttpTransport.parseRetryAfter(null, NOW));
+        assertEquals(OptionalLong.empty(), JdkHttpTransport.parseRetryAfter("soon", NOW));
+        assertEquals(OptionalLong.empty(), JdkHttpTransport.parseRetryAfter("-5", NOW));
+    }
+
+    @Test
+    void hugeRetryAfterDoesNotOverflow() {
+        OptionalLong delay = JdkHttpTransport.parseRetryAfter(String.valueOf(Long.MAX_VALUE), NOW);
+        assertTrue(delay.isPresent());
+        assertTrue(delay.getAsLong() > 0);
+    }
+
+    /**
+     * Stream that blocks until it is closed, like a stalled connection
+     */
+    private static class StalledStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    @Test
+    void stalledBodyReadTimesOut() {
+        StalledStream network = new StalledStream();
+        InputStream body = new JdkHttpTransport.ResponseBody(network, false, Duration.ofMillis(200));
+        IOException e = assertThrows(IOException.class, body::read);
+        assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+        assertEquals(0, network.closed.getCount());
+    }
+
+    @Test
+    void gzipBodyIsDecodedOnRead() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("[{\"lap_number\":1}]".getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream body = new JdkHttpTransport.ResponseBody(
+                new ByteArrayInputStream(compressed.toByteArray()), true, Duration.ofSeconds(30))) {
+            assertEquals("[{\"lap_number\":1}]", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void retryAfterBeyondTheBackoffCapFailsWithoutWaiting() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Retry-After", "3600");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            long start = System.nanoTime();
+            Exception e = assertThrows(Exception.class, () -> new JdkHttpTransport().get(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/laps"));
+            assertTrue(e.getMessage().contains("429"), e.getMessage());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class JsonStreamReaderTest {
+
+    private static JsonStreamReader reader(String json) {
+        return new JsonStreamReader(new StringReader(json));
+    }
+
+    private static double readDouble(String number) throws IOException {
+        JsonStreamReader reader = reader("[" + number + "]");
+        reader.beginArray();
+        double value = reader.nextDouble();
+        reader.endArray();
+        return value;
+    }
+
+    private static long readTimestamp(String timestamp) throws IOException {
+        JsonStreamReader reader = reader("[\"" + timestamp + "\"]");
+        reader.beginArray();
+        long value = reader.nextTimestampMillis();
+        reader.endArray();
+        return value;
+    }
+
+    @Test
+    void fastDoublePathMatchesParseDouble() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            int fractionDigits = random.nextInt(7);
+            double value = (random.nextBoolean() ? -1 : 1) * random.nextDouble() * 200;
+            String text = String.format(Locale.ROOT, "%." + fractionDigits + "f", value);
+            assertEquals(Double.parseDouble(text), readDouble(text), text);
+        }
+    }
+
+    @Test
+    void unusualNumbersFallBackToParseDouble() throws IOException {
+        String[] numbers = { "1e3", "-2.5E-2", "12345678901234567890.5", "0.000000000000000000000001",
+            "3.141592653589793238", "0", "-0.0", "1.0000000000000002" };
+        for (String number : numbers) {
+            assertEquals(Double.parseDouble(number), readDouble(number), number);
+        }
+    }
+
+    @Test
+    void integersAndLongs() throws IOException {
+        JsonStreamReader reader = reader("[42, -7, 9007199254740993, 1.0]");
+        reader.beginArray();
+        assertEquals(42, reader.nextInt());
+        assertEquals(-7, reader.nextInt());
+        assertEquals(9007199254740993L, reader.nextLong());
+        assertEquals(1, reader.nextInt());
+        reader.endArray();
+    }
+
+    @Test
+    void fastTimestampPathMatchesJavaTime() throws IOException {
+        Random random = new Random(2);
+        String[] fractions = { "", ".3", ".316", ".316000", ".999999" };
+        for (int i = 0; i < 20_000; i++) {
+            // 1950 to 2090, so days before the epoch and leap years are covered
+            long seconds = -631_152_000L + (long) (random.nextDouble() * 4_418_064_000L);
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds((random.nextInt(53) - 24) * 30 * 60); // -12:00 to +14:00
+            String fraction = fractions[random.nextInt(fractions.length)];
+            String base = Instant.ofEpochSecond(seconds).atOffset(offset)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+            String text = base + fraction + offset.getId().replace("Z", "+00:00");
+
+            long expected = OffsetDateTime.parse(text).toInstant().toEpochMilli();
+            assertEquals(expected, readTimestamp(text), text);
+        }
+    }
+
+    @Test
+    void timestampsWithoutOffsetAreUtc() throws IOException {
+        assertEquals(Instant.parse("2024-02-29T23:59:59.123Z").toEpochMilli(),
+            readTimestamp("2024-02-29T23:59:59.123"));
+        assertEquals(Instant.parse("2023-03-05T15:03:43.316Z").toEpochMilli(),
+            readTimestamp("2023-03-05T15:03:43.316000Z"));
+    }
+
+    @Test
+    void invalidTimestampIsASyntaxError() {
+        assertThrows(IOException.class, () -> readTimestamp("2024-13-45 garbage"));
+    }
+
+    @Test
+    void selectsNamesAndSkipsNestedValues() throws IOException {
+        String[] fields = { "driver_number", "lap_duration" };
+        JsonStreamReader reader = reader(
+            "[{\"skip\":{\"a\":[1,2,{\"b\":null}]},\"driver_number\":1,\"lap_duration\":null,\"other\":\"x\\\"y\"},"
+            + "{\"driver_number\":44,\"lap_duration\":91.5}]");
+        int[] numbers = new int[2];
+        double[] durations = new double[2];
+
+        reader.beginArray();
+        for (int row = 0; reader.hasNext(); row++) {
+            durations[row] = Double.NaN;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int field = reader.selectName(fields);
+                if (reader.peek() == JsonStreamReader.Token.NULL) {
+                    reader.nextNull();
+                } else if (field == 0) {
+                    numbers[row] = reader.nextInt();
+                } else if (field == 1) {
+                    durations[row] = reader.nextDouble();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+
+        assertArrayEquals(new int[] { 1, 44 }, numbers);
+        assertTrue(Double.isNaN(durations[0]));
+        assertEquals(91.5, durations[1]);
+        assertEquals(2, reader.getRowCount());
+    }
+
+    @Test
+    void decodesStringEscapes() throws IOException {
+        JsonStreamReader reader = reader("[\"P\\u00e9rez \\\"Checo\\\"\\n\"]");
+        reader.beginArray();
+        assertEquals("P\u00e9rez \"Checo\"\n", reader.nextString());
+        reader.endArray();
+    }
+}
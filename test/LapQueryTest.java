@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class LapQueryTest {
+
+    private static DriverLapData driver(int number, int position, double... lapTimes) {
+        DriverLapData driver = new DriverLapData(number);
+        driver.setFinishingPosition(position);
+        for (int i = 0; i < lapTimes.length; i++) {
+            // Lap 1 has no sector 1, lap 3 is a pit-out lap
+            driver.addLap(i + 1, lapTimes[i], i == 0 ? Double.NaN : lapTimes[i] / 3, lapTimes[i] / 3,
+                lapTimes[i] / 3, i == 2, DriverLapData.NO_START_TIME);
+        }
+        return driver;
+    }
+
+    private static RaceSession session() {
+        List<DriverLapData> drivers = Arrays.asList(
+            driver(1, 1, 95.0, 91.2, 110.5, 90.8, 91.0, Double.NaN),
+            driver(16, 2, 96.1, 91.5, 112.0, 91.1, 91.3, 91.4),
+            driver(44, 3, 97.0, 92.0, 108.0, 92.2, 92.4, 93.0));
+        return new RaceSession(new SessionInfo(2024, 1), 9472, drivers);
+    }
+
+    private static JSONArray run(String query) {
+        return LapQuery.compile(query).execute(session()).toJson();
+    }
+
+    @Test
+    void groupedAggregatesMatchDriverLapData() {
+        RaceSession session = session();
+        JSONArray rows = LapQuery.compile(
+            "select count, avg(lap_time), min(lap_time) where not pit_out group by driver")
+            .execute(session).toJson();
+
+        assertEquals(3, rows.length());
+        for (int i = 0; i < rows.length(); i++) {
+            JSONObject row = rows.getJSONObject(i);
+            DriverLapData driver = session.getDrivers().get(i); // Finishing order
+            assertEquals(driver.getDriverNumber(), row.getInt("driverNumber"));
+            assertEquals(driver.getAverageLapTime(), row.getDouble("avg(lap_time)"), 1e-9);
+            assertEquals(driver.getFastestLapTime(), row.getDouble("min(lap_time)"));
+        }
+        assertEquals(5, rows.getJSONObject(0).getLong("count")); // Rows count even without a lap time
+    }
+
+    @Test
+    void driverInLapBetweenOrderAndLimit() {
+        JSONArray rows = run("SELECT avg(lap_time) WHERE driver IN (16, 44) AND lap BETWEEN 4 AND 5 "
+            + "GROUP BY driver ORDER BY avg(lap_time) DESC LIMIT 1");
+
+        assertEquals(1, rows.length());
+        assertEquals(44, rows.getJSONObject(0).getInt("driverNumber"));
+        assertEquals(92.3, rows.getJSONObject(0).getDouble("avg(lap_time)"), 1e-9);
+    }
+
+    @Test
+    void valueBoundsSkipLapsWithoutTheColumn() {
+        JSONObject all = run("select count, max(lap_time) where lap_time < 1:40").getJSONObject(0);
+        assertEquals(14, all.getLong("count"));
+        assertEquals(97.0, all.getDouble("max(lap_time)"));
+
+        // Lap 1 has no sector 1, so a bound on s1 leaves it out
+        JSONObject sectors = run("select count where s1 >= 0 and driver = 1").getJSONObject(0);
+        assertEquals(4, sectors.getLong("count"));
+    }
+
+    @Test
+    void pitOutLapsOnly() {
+        JSONObject row = run("select count, p50(lap_time) where pit_out").getJSONObject(0);
+        assertEquals(3, row.getLong("count"));
+        assertEquals(110.5, row.getDouble("p50(lap_time)"), 110.5 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void ungroupedQueryWithoutMatchesHasOneRow() {
+        JSONArray rows = run("select count, avg(lap_time) where driver = 99");
+        assertEquals(1, rows.length());
+        assertEquals(0, rows.getJSONObject(0).getLong("count"));
+        assertFalse(rows.getJSONObject(0).has("avg(lap_time)"));
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        String[] queries = {
+            "select avg(tyre_age)",
+            "select avg(lap_time) order by min(lap_time)",
+            "select avg(lap_time) where",
+            "select avg(lap_time) where lap between 1",
+            "select median(lap_time) group by team",
+            "select count limit 0",
+            "select count where driver in (1, 200)",
+            "select count extra",
+            "update laps",
+        };
+        for (String query : queries) {
+            assertThrows(IllegalArgumentException.class, () -> LapQuery.compile(query), query);
+        }
+    }
+}
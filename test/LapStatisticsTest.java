@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LapStatisticsTest {
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double standardDeviation(double[] values) {
+        double mean = mean(values);
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / (values.length - 1));
+    }
+
+    private static double[] laps(long seed, int count, double base) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = base + random.nextGaussian() * 2;
+        }
+        return values;
+    }
+
+    @Test
+    void runningMeanAndDeviationMatchTwoPass() {
+        double[] values = laps(1, 5_000, 90);
+        LapStatistics statistics = new LapStatistics();
+        for (double value : values) {
+            statistics.addLap(value, false);
+        }
+
+        assertEquals(values.length, statistics.getCount());
+        assertEquals(mean(values), statistics.getMean(), 1e-9);
+        assertEquals(standardDeviation(values), statistics.getStandardDeviation(), 1e-9);
+    }
+
+    @Test
+    void mergedStatisticsMatchOneRunOverAllLaps() {
+        // Very different means stress the correction term of the merge
+        double[][] parts = { laps(2, 1_000, 75), laps(3, 10, 110), laps(4, 3_000, 92), new double[0] };
+        LapStatistics merged = new LapStatistics();
+        LapStatistics single = new LapStatistics();
+        int total = 0;
+        for (double[] part : parts) {
+            LapStatistics statistics = new LapStatistics();
+            for (double value : part) {
+                statistics.addLap(value, false);
+                single.addLap(value, false);
+            }
+            merged.merge(statistics);
+            total += part.length;
+        }
+
+        double[] all = new double[total];
+        int i = 0;
+        for (double[] part : parts) {
+            for (double value : part) {
+                all[i++] = value;
+            }
+        }
+
+        assertEquals(total, merged.getCount());
+        assertEquals(mean(all), merged.getMean(), 1e-9);
+        assertEquals(standardDeviation(all), merged.getStandardDeviation(), 1e-9);
+        assertEquals(single.getMedian(), merged.getMedian());
+    }
+
+    @Test
+    void emptyAndSingleLapStatisticsAreNaN() {
+        LapStatistics statistics = new LapStatistics();
+        assertTrue(Double.isNaN(statistics.getMean()));
+        statistics.addLap(90, false);
+        assertEquals(90, statistics.getMean());
+        assertTrue(Double.isNaN(statistics.getStandardDeviation()));
+    }
+
+    @Test
+    void cleanAirPaceLeavesOutInLapsAndSlowLaps() {
+        DriverLapData driver = new DriverLapData(1);
+        driver.addLap(1, 90, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);
+        driver.addLap(2, 91, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);
+        driver.addLap(3, 110, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME); // Safety car
+        driver.addLap(4, 95, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);  // In-lap
+        driver.addLap(5, 105, Double.NaN, Double.NaN, Double.NaN, true, DriverLapData.NO_START_TIME);  // Pit-out
+        driver.addLap(6, 92, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);
+
+        LapStatistics statistics = LapStatistics.of(driver);
+        assertEquals(5, statistics.getCount()); // The pit-out lap is not a timed lap
+        assertEquals(3, statistics.getCleanAirLapCount());
+        assertEquals(91, statistics.getCleanAirPace(), 1e-9);
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LapStoreTest {
+    @TempDir
+    Path directory;
+
+    private static RaceSession session() {
+        DriverLapData winner = new DriverLapData(1);
+        winner.setFinishingPosition(1);
+        winner.addLap(1, Double.NaN, Double.NaN, 40.1, 30.2, false, 1_709_391_600_000L); // Untimed first lap
+        winner.addLap(2, 91.25, 30.5, 30.25, 30.5, false, 1_709_391_700_000L);
+        winner.addLap(3, 110.0, 30.0, 50.0, 30.0, true, 1_709_391_791_250L);
+
+        DriverLapData retired = new DriverLapData(44);
+        retired.addLap(1, 93.5, 31.0, 31.25, 31.25, false, DriverLapData.NO_START_TIME);
+
+        return new RaceSession(new SessionInfo(2023, 7), 9472, Arrays.asList(winner, retired));
+    }
+
+    @Test
+    void storedSessionReadsBackEveryColumn() throws Exception {
+        LapStore store = new LapStore(directory);
+        RaceSession original = session();
+        store.write(original);
+
+        MappedLapFile file = store.open(9472);
+        assertNotNull(file);
+        assertEquals(9472, file.getSessionKey());
+        assertEquals(2023, file.getSeason());
+        assertEquals(7, file.getRound());
+        assertEquals(2, file.getDriverCount());
+        assertEquals(4, file.getTotalLapCount());
+
+        RaceSession loaded = file.toSession(DriverRoster.empty());
+        assertEquals(original.getSessionInfo(), loaded.getSessionInfo());
+        List<DriverLapData> expected = original.getDrivers();
+        List<DriverLapData> actual = loaded.getDrivers();
+        assertEquals(expected.size(), actual.size());
+        for (int d = 0; d < expected.size(); d++) {
+            DriverLapData a = expected.get(d);
+            DriverLapData b = actual.get(d);
+            assertEquals(a.getDriverNumber(), b.getDriverNumber());
+            assertEquals(a.getFinishingPosition(), b.getFinishingPosition());
+            assertEquals(a.getRecordedLapCount(), b.getRecordedLapCount());
+            for (int i = 0; i < a.getRecordedLapCount(); i++) {
+                assertEquals(a.getLapNumber(i), b.getLapNumber(i));
+                assertEquals(a.getLapTime(i), b.getLapTime(i)); // NaN equals NaN here
+                assertEquals(a.getSector1(i), b.getSector1(i));
+                assertEquals(a.getSector2(i), b.getSector2(i));
+                assertEquals(a.getSector3(i), b.getSector3(i));
+                assertEquals(a.isPitOutLap(i), b.isPitOutLap(i));
+                assertEquals(a.getLapStartMillis(i), b.getLapStartMillis(i));
+            }
+            assertEquals(a.getAverageLapTime(), b.getAverageLapTime());
+            assertEquals(a.getFastestLapTime(), b.getFastestLapTime());
+        }
+    }
+
+    @Test
+    void writingAgainReplacesTheSession() throws Exception {
+        LapStore store = new LapStore(directory);
+        store.write(session());
+
+        DriverLapData only = new DriverLapData(16);
+        only.addLap(1, 88.0, 29.0, 29.0, 30.0, false, DriverLapData.NO_START_TIME);
+        store.write(new RaceSession(new SessionInfo(2023, 7), 9472, List.of(only)));
+
+        MappedLapFile file = store.open(9472);
+        assertEquals(1, file.getDriverCount());
+        assertEquals(16, file.getDriverNumber(0));
+    }
+
+    @Test
+    void missingSessionIsNull() throws Exception {
+        assertNull(new LapStore(directory).open(1234));
+    }
+
+    /**
+     * Overwrites one int of a stored session file
+     */
+    private void corrupt(int sessionKey, int offset, int value) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value);
+        try (FileChannel channel = FileChannel.open(directory.resolve(sessionKey + ".f1laps"),
+                StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+
+    @Test
+    void implausibleCountsAreRejected() throws Exception {
+        LapStore store = new LapStore(directory);
+        int[][] corruptions = {
+            {20, -1}, {20, Integer.MAX_VALUE}, {24, -8}, {24, Integer.MAX_VALUE / 4}
+        };
+        for (int[] corruption : corruptions) {
+            store.write(session());
+            corrupt(9472, corruption[0], corruption[1]);
+            assertNull(store.open(9472), "offset " + corruption[0] + " = " + corruption[1]);
+        }
+    }
+
+    @Test
+    void invalidIndexEntriesAreRejected() throws Exception {
+        LapStore store = new LapStore(directory);
+        int secondDriver = LapStore.HEADER_BYTES + LapStore.INDEX_ENTRY_BYTES;
+        int[][] corruptions = {
+            {secondDriver, -1}, {secondDriver + 8, -1}, {secondDriver + 8, 4}, {secondDriver + 12, 2}
+        };
+        for (int[] corruption : corruptions) {
+            store.write(session());
+            corrupt(9472, corruption[0], corruption[1]);
+            assertNull(store.open(9472), "offset " + corruption[0] + " = " + corruption[1]);
+        }
+    }
+}
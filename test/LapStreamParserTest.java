@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LapStreamParserTest {
+    private static final String LAPS = "["
+        + "{\"driver_number\":1,\"lap_number\":1,\"lap_duration\":92.1,\"is_pit_out_lap\":false,"
+        + "\"duration_sector_1\":30.1,\"duration_sector_2\":31.0,\"duration_sector_3\":31.0,"
+        + "\"date_start\":\"2023-03-05T15:03:43.316000+00:00\"},"
+        + "{\"driver_number\":null,\"lap_number\":2,\"lap_duration\":91.0},"
+        + "{\"lap_number\":3,\"lap_duration\":90.0},"
+        + "{\"driver_number\":44,\"lap_number\":1,\"lap_duration\":null,\"is_pit_out_lap\":true}]";
+
+    private static JsonStreamReader reader(String json) {
+        return new JsonStreamReader(new StringReader(json));
+    }
+
+    @Test
+    void rowsWithoutDriverNumberAreSkipped() throws Exception {
+        List<LapRow> rows = new ArrayList<>();
+        int read = LapStreamParser.parse(reader(LAPS), row -> rows.add(row.copy()));
+
+        assertEquals(4, read);
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).getDriverNumber());
+        assertEquals(92.1, rows.get(0).getLapDuration());
+        assertEquals(30.1, rows.get(0).getSector1());
+        assertEquals(44, rows.get(1).getDriverNumber());
+        assertFalse(rows.get(1).hasLapDuration());
+        assertTrue(rows.get(1).isPitOutLap());
+    }
+
+    @Test
+    void lapDataHasNoPhantomDriver() throws Exception {
+        List<DriverLapData> drivers = F1ApiService.parseLapData(reader(LAPS));
+
+        // Driver 44 has no timed lap and is left out
+        assertEquals(1, drivers.size());
+        assertEquals(1, drivers.get(0).getDriverNumber());
+        assertEquals(1, drivers.get(0).getTotalLaps());
+    }
+}
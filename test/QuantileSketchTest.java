@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+    private static final double[] QUANTILES = { 0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0 };
+
+    /**
+     * Lap-time-like values: mostly racing laps, some slow laps and a long tail
+     */
+    private static double[] lapTimes(long seed, int count) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            double base = 80 + random.nextGaussian() * 1.5;
+            values[i] = random.nextInt(20) == 0 ? base * (1.2 + random.nextDouble()) : base;
+        }
+        return values;
+    }
+
+    private static double exactQuantile(double[] sorted, double quantile) {
+        return sorted[(int) (quantile * (sorted.length - 1))];
+    }
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        for (double accuracy : new double[] { 0.001, 0.01, 0.05 }) {
+            double[] values = lapTimes(1, 50_000);
+            QuantileSketch sketch = new QuantileSketch(accuracy);
+            for (double value : values) {
+                sketch.add(value);
+            }
+            Arrays.sort(values);
+
+            assertEquals(values.length, sketch.getCount());
+            for (double quantile : QUANTILES) {
+                double exact = exactQuantile(values, quantile);
+                double estimate = sketch.getQuantile(quantile);
+                assertEquals(exact, estimate, exact * accuracy * (1 + 1e-9),
+                    "q" + quantile + " at accuracy " + accuracy);
+            }
+        }
+    }
+
+    @Test
+    void mergeEqualsAddingEverythingToOneSketch() {
+        double[] first = lapTimes(2, 10_000);
+        double[] second = lapTimes(3, 7_000);
+        for (int i = 0; i < second.length; i++) {
+            second[i] *= 1.4; // Another circuit, so the bucket ranges only partly overlap
+        }
+
+        QuantileSketch a = new QuantileSketch();
+        QuantileSketch b = new QuantileSketch();
+        QuantileSketch all = new QuantileSketch();
+        for (double value : first) {
+            a.add(value);
+            all.add(value);
+        }
+        for (double value : second) {
+            b.add(value);
+            all.add(value);
+        }
+        b.merge(a);
+
+        assertEquals(all.getCount(), b.getCount());
+        for (double quantile : QUANTILES) {
+            assertEquals(all.getQuantile(quantile), b.getQuantile(quantile), "q" + quantile);
+        }
+        assertEquals(all.getMeanAtMost(100), b.getMeanAtMost(100), 1e-9);
+    }
+
+    @Test
+    void meanAtMostIsExactAwayFromTheLimitBucket() {
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = { 80, 81, 82, 83, 120, 130 };
+        for (double value : values) {
+            sketch.add(value);
+        }
+        assertEquals(81.5, sketch.getMeanAtMost(100), 1e-9);
+        assertEquals(4, sketch.getCountAtMost(100));
+        assertTrue(Double.isNaN(sketch.getMeanAtMost(10)));
+    }
+
+    @Test
+    void ignoresValuesThatAreNotPositive() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+        sketch.add(0);
+        sketch.add(-5);
+        sketch.add(Double.NaN);
+        sketch.add(Double.POSITIVE_INFINITY);
+        assertEquals(0, sketch.getCount());
+
+        sketch.add(90);
+        assertEquals(90, sketch.getQuantile(0.5), 90 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void rejectsMergingDifferentAccuracies() {
+        QuantileSketch a = new QuantileSketch(0.01);
+        QuantileSketch b = new QuantileSketch(0.02);
+        b.add(1);
+        assertThrows(IllegalArgumentException.class, () -> a.merge(b));
+    }
+}
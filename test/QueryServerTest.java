@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class QueryServerTest {
+    private static final String SESSIONS = "[{\"session_key\":7,\"circuit_short_name\":\"Sakhir\","
+        + "\"date_start\":\"2023-03-05T15:00:00+00:00\",\"date_end\":\"2023-03-05T17:00:00+00:00\"}]";
+
+    // Driver 1 has three timed laps; driver 2 has one, then a pit-out lap
+    private static final String LAPS = "["
+        + lap(1, 1, "92.1", false) + "," + lap(1, 2, "91.5", false) + "," + lap(1, 3, "91.8", false) + ","
+        + lap(2, 1, "93.0", false) + "," + lap(2, 2, "110.0", true) + "]";
+
+    private static final String POSITIONS = "["
+        + "{\"driver_number\":1,\"position\":1,\"date\":\"2023-03-05T16:50:00\"},"
+        + "{\"driver_number\":2,\"position\":2,\"date\":\"2023-03-05T16:50:00\"}]";
+
+    @TempDir
+    Path directory;
+
+    private QueryServer server;
+
+    private static String lap(int driver, int lap, String duration, boolean pitOut) {
+        return String.format("{\"driver_number\":%d,\"lap_number\":%d,\"lap_duration\":%s,"
+            + "\"duration_sector_1\":null,\"duration_sector_2\":null,\"duration_sector_3\":null,"
+            + "\"is_pit_out_lap\":%b,\"date_start\":\"2023-03-05T15:0%d:00\"}", driver, lap, duration, pitOut, lap);
+    }
+
+    @BeforeEach
+    void start() throws Exception {
+        HttpTransport transport = url -> {
+            String body;
+            if (url.contains("/sessions")) {
+                body = SESSIONS;
+            } else if (url.contains("/laps")) {
+                body = LAPS;
+            } else if (url.contains("/position")) {
+                body = POSITIONS;
+            } else {
+                body = "[]";
+            }
+            return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        };
+        F1ApiService apiService = new F1ApiService("http://test",
+            new ResponseCache(directory.resolve("cache"), 1 << 20, false), transport,
+            new LapStore(directory.resolve("sessions")));
+        server = new QueryServer(apiService, 0, 4);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getPort() + path)).build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void driverWithOneTimedLapLeavesOutUndefinedStatistics() throws Exception {
+        HttpResponse<String> response = get("/api/driver?season=2023&round=1&driver=2");
+        assertEquals(200, response.statusCode(), response.body());
+
+        JSONObject driver = new JSONObject(response.body()).getJSONObject("driver");
+        assertEquals(1, driver.getInt("laps"));
+        assertEquals(93.0, driver.getDouble("medianLapTime"), 93.0 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+        assertFalse(driver.has("standardDeviation"));
+        assertFalse(driver.has("cleanAirPace")); // Its only timed lap is an in-lap
+        assertEquals(0, driver.getLong("cleanAirLaps"));
+    }
+
+    @Test
+    void driverWithSeveralLapsHasAllStatistics() throws Exception {
+        HttpResponse<String> response = get("/api/driver?season=2023&round=1&driver=1");
+        assertEquals(200, response.statusCode(), response.body());
+
+        JSONObject driver = new JSONObject(response.body()).getJSONObject("driver");
+        assertEquals(3, driver.getInt("laps"));
+        assertTrue(driver.has("standardDeviation"));
+        assertEquals(91.8, driver.getDouble("cleanAirPace"), 1e-9);
+    }
+
+    @Test
+    void fastestLapCountIsCapped() throws Exception {
+        assertEquals(400, get("/api/fastest-laps?season=2023&round=1&count=101").statusCode());
+        assertEquals(200, get("/api/fastest-laps?season=2023&round=1&count=100").statusCode());
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class RecordWriterTest {
+
+    @Test
+    void csvQuotesOnlyWhenNeeded() throws IOException {
+        StringWriter out = new StringWriter();
+        try (RecordWriter writer = new RecordWriter(out, RecordWriter.Format.CSV, "season", "driver", "lap_time", "pit_out")) {
+            writer.value(2024).value("Max Verstappen").value(92.5).value(false).endRecord();
+            writer.value(2024).value("Perez, \"Checo\"").value(Double.NaN).value(true).endRecord();
+            writer.value(2024L).value((String) null).value(Double.POSITIVE_INFINITY).value(false).endRecord();
+            writer.value(2024).value("line\nbreak").value(1.0).value(false).endRecord();
+            assertEquals(4, writer.getRecordCount());
+        }
+
+        assertEquals("season,driver,lap_time,pit_out\n"
+            + "2024,Max Verstappen,92.5,false\n"
+            + "2024,\"Perez, \"\"Checo\"\"\",,true\n"
+            + "2024,,,false\n"
+            + "2024,\"line\nbreak\",1.0,false\n", out.toString());
+    }
+
+    @Test
+    void ndjsonEscapesParseBack() throws IOException {
+        String name = "Pérez \"Checo\" \\ \n\r\t\u0001";
+        StringWriter out = new StringWriter();
+        try (RecordWriter writer = new RecordWriter(out, RecordWriter.Format.NDJSON, "driver", "lap_time", "team")) {
+            writer.value(name).value(Double.NaN).value((String) null).endRecord();
+            writer.value("Max").value(92.345).value("Red Bull").endRecord();
+        }
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length); // No header, and escaped newlines stay on one line
+        JSONObject first = new JSONObject(lines[0]);
+        assertEquals(name, first.getString("driver"));
+        assertTrue(first.isNull("lap_time"));
+        assertTrue(first.isNull("team"));
+        JSONObject second = new JSONObject(lines[1]);
+        assertEquals(92.345, second.getDouble("lap_time"));
+        assertEquals("Red Bull", second.getString("team"));
+    }
+
+    @Test
+    void wrongNumberOfValuesIsRejected() throws IOException {
+        RecordWriter writer = new RecordWriter(new StringWriter(), RecordWriter.Format.CSV, "a", "b");
+        writer.value(1);
+        assertThrows(IllegalStateException.class, writer::endRecord);
+        writer.value(2);
+        assertThrows(IllegalStateException.class, () -> writer.value(3));
+    }
+
+    @Test
+    void formatNames() {
+        assertEquals(RecordWriter.Format.NDJSON, RecordWriter.Format.parse("NdJson"));
+        assertEquals(".csv", RecordWriter.Format.CSV.extension());
+        assertThrows(IllegalArgumentException.class, () -> RecordWriter.Format.parse("xml"));
+    }
+}
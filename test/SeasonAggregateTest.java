@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SeasonAggregateTest {
+
+    private static RaceInfo race(int round) {
+        return new RaceInfo(round, "Circuit " + round, "Country", "2024-03-0" + round, 9000 + round);
+    }
+
+    private static DriverLapData driver(int number, double... lapTimes) {
+        DriverLapData driver = new DriverLapData(number);
+        for (int i = 0; i < lapTimes.length; i++) {
+            driver.addLapTime(lapTimes[i], i + 1);
+        }
+        return driver;
+    }
+
+    /**
+     * A driver whose only timed lap is an in-lap has no clean-air pace
+     */
+    private static DriverLapData driverWithoutPace(int number) {
+        DriverLapData driver = new DriverLapData(number);
+        driver.addLap(1, 95.0, Double.NaN, Double.NaN, Double.NaN, false, DriverLapData.NO_START_TIME);
+        driver.addLap(2, 120.0, Double.NaN, Double.NaN, Double.NaN, true, DriverLapData.NO_START_TIME);
+        return driver;
+    }
+
+    private static SeasonAggregate.DriverSeason find(List<SeasonAggregate.DriverSeason> ranking, int number) {
+        return ranking.stream().filter(d -> d.getDriverNumber() == number).findFirst().orElseThrow();
+    }
+
+    @Test
+    void driverWithoutPaceDoesNotResetTheBestPace() {
+        SeasonAggregate round = SeasonAggregate.ofRound(race(1), Arrays.asList(
+            driver(1, 90, 90, 90), driverWithoutPace(2), driver(3, 92, 92, 92)));
+
+        List<SeasonAggregate.DriverSeason> ranking = round.getPaceRanking();
+        assertEquals(0.0, find(ranking, 1).getAveragePaceDeficit(), 1e-9);
+        assertEquals((92.0 / 90 - 1) * 100, find(ranking, 3).getAveragePaceDeficit(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, find(ranking, 2).getAveragePaceDeficit());
+    }
+
+    @Test
+    void mergeAddsRoundsIntoOneAggregate() {
+        SeasonAggregate season = SeasonAggregate.empty();
+        season.merge(SeasonAggregate.ofRound(race(1), Arrays.asList(driver(1, 90, 90), driver(16, 91, 91))));
+        season.merge(SeasonAggregate.ofRound(race(2), Arrays.asList(driver(1, 81, 81), driver(16, 80, 80))));
+        season.merge(SeasonAggregate.failedRound(race(3), "HTTP request failed with code: 500"));
+
+        assertEquals(2, season.getFastestLaps().size());
+        assertEquals(80.0, season.getFastestLaps().get(1).getLapTime());
+        assertEquals(List.of(3), List.copyOf(season.getFailures().keySet()));
+
+        SeasonAggregate.DriverSeason second = find(season.getPaceRanking(), 16);
+        assertEquals(2, second.getRounds());
+        assertEquals(4, second.getLaps().getCount());
+        assertEquals(((91.0 / 90 - 1) * 100 + 0) / 2, second.getAveragePaceDeficit(), 1e-9);
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+    private final SingleFlight<String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> task = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "result";
+        };
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> flight.execute("key", task, shared::incrementAndGet)));
+        }
+        waitUntil(() -> calls.get() == 1 && shared.get() == 7);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flight.size());
+    }
+
+    @Test
+    void waitersReceiveTheSameException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger shared = new AtomicInteger();
+        Callable<String> task = () -> {
+            release.await();
+            throw new IllegalStateException("boom");
+        };
+
+        Future<String> first = executor.submit(() -> flight.execute("key", task));
+        waitUntil(() -> flight.size() == 1);
+        Future<String> second = executor.submit(() -> flight.execute("key", task, shared::incrementAndGet));
+        waitUntil(() -> shared.get() == 1);
+        release.countDown();
+
+        for (Future<String> result : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void waitersRetryWhenTheRunningCallerIsInterrupted() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        Callable<String> task = () -> {
+            if (calls.incrementAndGet() == 1) {
+                firstStarted.countDown();
+                Thread.sleep(60_000); // Interrupted below
+            }
+            return "retried";
+        };
+
+        Future<String> first = executor.submit(() -> flight.execute("key", task));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        Future<String> second = executor.submit(() -> flight.execute("key", task, shared::incrementAndGet));
+        waitUntil(() -> shared.get() == 1);
+
+        first.cancel(true);
+        assertEquals("retried", second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.size());
+    }
+
+    @Test
+    void keyIsFreeAgainAfterTheCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(1, (int) flight.execute("key", calls::incrementAndGet));
+        assertEquals(2, (int) flight.execute("key", calls::incrementAndGet));
+        assertEquals(0, flight.size());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not reached in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+}